@@ -0,0 +1,165 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.benchmarks;
+
+import net.jadedmc.jadedparty.TestProxy;
+import net.jadedmc.jadedparty.utils.ChatUtils;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
+import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures turning messages into chat components.
+ * Includes the regex based replaceLegacy the plugin used to have, to compare against the current one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatBenchmark {
+    private static final String MINI_MESSAGE = "<green><bold>Party</bold> <dark_gray>» <white>Player123 <green>has joined the party.";
+    private static final String LEGACY = "&a&lParty &8» &fPlayer123 &awas kicked from the party by &fModerator&a.";
+    private static final String HEX = "&#55FF55Party &8» &#FFFFFFPlayer123 &ahas joined the party.";
+    private static final String HEADER = "&a&lParty Members";
+    private static final MessageTemplate MEMBER_JOINED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas joined the party.", "player");
+
+    private final CommandSender sender = TestProxy.stub(CommandSender.class, Map.of("getName", "Player123"));
+
+    @Benchmark
+    public BaseComponent[] translateMiniMessage() {
+        return ChatUtils.translate(MINI_MESSAGE);
+    }
+
+    @Benchmark
+    public BaseComponent[] translateLegacy() {
+        return ChatUtils.translate(LEGACY);
+    }
+
+    /**
+     * Renders a message from a template, which is parsed once instead of on every send.
+     * Filling in the placeholder still runs replaceText and the serializer, so whether this beats renderString
+     * depends on the Adventure version. It has not been measured against the real library yet.
+     */
+    @Benchmark
+    public BaseComponent[] renderTemplate() {
+        return MEMBER_JOINED.render("Player123");
+    }
+
+    /**
+     * Renders the same message by building the string and translating it, like ChatUtils.chat does.
+     */
+    @Benchmark
+    public BaseComponent[] renderString() {
+        return ChatUtils.translate("<green><bold>Party</bold> <dark_gray>» <white>" + "Player123" + " &ahas joined the party.");
+    }
+
+    @Benchmark
+    public String replaceLegacy() {
+        return ChatUtils.replaceLegacy(LEGACY);
+    }
+
+    @Benchmark
+    public String replaceLegacyHex() {
+        return ChatUtils.replaceLegacy(HEX);
+    }
+
+    @Benchmark
+    public String replaceLegacyMiniMessage() {
+        return ChatUtils.replaceLegacy(MINI_MESSAGE);
+    }
+
+    @Benchmark
+    public String replaceLegacyRegex() {
+        return replaceLegacyWithRegex(LEGACY);
+    }
+
+    @Benchmark
+    public String replaceLegacyRegexHex() {
+        return replaceLegacyWithRegex(HEX);
+    }
+
+    @Benchmark
+    public void centeredChat() {
+        ChatUtils.centeredChat(sender, HEADER);
+    }
+
+    @Benchmark
+    public String centerCached() {
+        return ChatUtils.center(HEADER);
+    }
+
+    @Benchmark
+    public String centerUncached() {
+        return ChatUtils.center(HEADER, false);
+    }
+
+    /**
+     * The replaceLegacy the plugin used before it was rewritten as a single pass, kept as a baseline.
+     * @param message Message to replace color codes in.
+     * @return Message with the color codes replaced.
+     */
+    private static String replaceLegacyWithRegex(String message) {
+        Pattern pattern = Pattern.compile("&#[a-fA-F0-9]{6}");
+        Matcher matcher = pattern.matcher(message);
+
+        while (matcher.find()) {
+            String color = message.substring(matcher.start() + 1, matcher.end());
+            message = message.replace("&" + color, "<reset><color:" + color + ">");
+            matcher = pattern.matcher(message);
+        }
+
+        return message.replace("§", "&")
+                .replace("&0", "<reset><black>")
+                .replace("&1", "<reset><dark_blue>")
+                .replace("&2", "<reset><dark_green>")
+                .replace("&3", "<reset><dark_aqua>")
+                .replace("&4", "<reset><dark_red>")
+                .replace("&5", "<reset><dark_purple>")
+                .replace("&6", "<reset><gold>")
+                .replace("&7", "<reset><gray>")
+                .replace("&8", "<reset><dark_gray>")
+                .replace("&9", "<reset><blue>")
+                .replace("&a", "<reset><green>")
+                .replace("&b", "<reset><aqua>")
+                .replace("&c", "<reset><red>")
+                .replace("&d", "<reset><light_purple>")
+                .replace("&e", "<reset><yellow>")
+                .replace("&f", "<reset><white>")
+                .replace("&k", "<obfuscated>")
+                .replace("&l", "<bold>")
+                .replace("&m", "<strikethrough>")
+                .replace("&n", "<u>")
+                .replace("&o", "<i>")
+                .replace("&r", "<reset>");
+    }
+}
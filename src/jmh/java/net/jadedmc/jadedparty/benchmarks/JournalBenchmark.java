@@ -0,0 +1,116 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.benchmarks;
+
+import net.jadedmc.jadedparty.party.PartyRank;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+import net.jadedmc.jadedparty.persistence.PartyJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Measures restoring parties on startup, either from a compacted snapshot or by replaying a journal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+    private static final int MEMBERS = 4;
+
+    @Param({"100000"})
+    private int parties;
+
+    @Param({"snapshot", "journal"})
+    private String source;
+
+    private final Logger logger = Logger.getLogger("JournalBenchmark");
+    private Path directory;
+    private PartyJournal journal;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("jadedparty-journal");
+
+        List<PartySnapshot> snapshots = new ArrayList<>(parties);
+        for(int i = 0; i < parties; i++) {
+            UUID leader = UUID.randomUUID();
+            Map<UUID, PartyRank> members = new HashMap<>();
+            members.put(leader, PartyRank.LEADER);
+
+            for(int member = 1; member < MEMBERS; member++) {
+                members.put(UUID.randomUUID(), PartyRank.MEMBER);
+            }
+
+            snapshots.add(new PartySnapshot(UUID.randomUUID(), MEMBERS, leader, false, Map.copyOf(members)));
+        }
+
+        journal = new PartyJournal(directory, logger);
+        journal.restore();
+        journal.start(TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toSeconds(1), () -> snapshots);
+
+        if(source.equals("snapshot")) {
+            journal.close(() -> snapshots);
+            journal = null;
+            return;
+        }
+
+        // Leaves every party in the journal, as if the proxy crashed before compacting.
+        for(PartySnapshot snapshot : snapshots) {
+            journal.recordSync(snapshot);
+        }
+
+        journal.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        // Stops the journal's writer thread. The parties are not needed anymore, so nothing is compacted into the snapshot.
+        if(journal != null) {
+            journal.close(List::of);
+            journal = null;
+        }
+
+        try(Stream<Path> files = Files.walk(directory)) {
+            for(Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Collection<PartySnapshot> restore() throws IOException {
+        return new PartyJournal(directory, logger).restore();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.benchmarks;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.TestProxy;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.party.PartyRank;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures syncing a party to its backend servers, and reading its members, for parties of 2 to 200 players.
+ * Members are spread over four servers, so every sync goes to several servers.
+ * Includes the getLeader and getRank the plugin used before the leader and rank index, to compare against the current ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartyBenchmark {
+    private static final int SERVERS = 4;
+
+    @Param({"2", "10", "50", "100", "200"})
+    private int size;
+
+    private JadedPartyPlugin plugin;
+    private Party party;
+    private ProxiedPlayer leader;
+    private ProxiedPlayer lastMember;
+    private boolean publicParty = false;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TestProxy proxy = new TestProxy();
+
+        ServerInfo[] servers = new ServerInfo[SERVERS];
+        for(int i = 0; i < SERVERS; i++) {
+            servers[i] = proxy.addServer("server-" + i);
+        }
+
+        ProxiedPlayer[] members = new ProxiedPlayer[size];
+        for(int i = 0; i < size; i++) {
+            members[i] = proxy.addPlayer("Member" + i, servers[i % SERVERS]);
+        }
+
+        plugin = proxy.enablePlugin("persistence:\n  enabled: false\nsync:\n  protocol: binary\n");
+        leader = members[0];
+        lastMember = members[size - 1];
+        party = plugin.partyManager().createParty(leader);
+
+        for(int i = 1; i < size; i++) {
+            party.addPlayer(members[i]).join();
+        }
+
+        // Makes every server known to the party, so later syncs can send changes only.
+        party.syncDataNow().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        plugin.onDisable();
+    }
+
+    /**
+     * Sends the whole party to every server, as when it is first synced.
+     */
+    @Benchmark
+    public void syncSnapshot() {
+        party.syncDataNow().join();
+    }
+
+    /**
+     * Changes a setting, then sends only that change to every server.
+     */
+    @Benchmark
+    public void syncChange() {
+        publicParty = !publicParty;
+        party.setPublic(publicParty);
+        party.syncDataNow().join();
+    }
+
+    @Benchmark
+    public byte[] encodeSync() {
+        return plugin.messageEncoder().encodeSync(party);
+    }
+
+    @Benchmark
+    public ProxiedPlayer getLeader() {
+        return party.getLeader();
+    }
+
+    @Benchmark
+    public PartyRank getRank() {
+        return party.getRank(lastMember);
+    }
+
+    @Benchmark
+    public ProxiedPlayer getLeaderScan() {
+        return getLeaderWithScan();
+    }
+
+    @Benchmark
+    public PartyRank getRankContainsKey() {
+        return getRankWithContainsKey(lastMember);
+    }
+
+    @Benchmark
+    public List<ProxiedPlayer> getMembers() {
+        return party.getMembers();
+    }
+
+    /**
+     * Gets the online members after a member connected or disconnected, so the cached list has to be rebuilt.
+     */
+    @Benchmark
+    public List<ProxiedPlayer> getMembersInvalidated() {
+        party.invalidateMembers();
+        return party.getMembers();
+    }
+
+    /**
+     * The getLeader the plugin used before the leader was tracked, kept as a baseline.
+     * Builds the list of online members, then checks the rank of each one.
+     * @return Party leader, or null if they are not online.
+     */
+    private ProxiedPlayer getLeaderWithScan() {
+        for(ProxiedPlayer player : getMembersWithScan()) {
+            if(getRankWithContainsKey(player) == PartyRank.LEADER) {
+                return player;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The getRank the plugin used before the rank index, kept as a baseline.
+     * Checks that the player is a member before reading their rank, so members are looked up twice.
+     * @param player Player to get the rank of.
+     * @return PartyRank of the player, or null if they are not in the party.
+     */
+    private PartyRank getRankWithContainsKey(ProxiedPlayer player) {
+        if(party.getMemberUUIDs().contains(player.getUniqueId())) {
+            return party.getRank(player.getUniqueId());
+        }
+
+        return null;
+    }
+
+    /**
+     * The getMembers the plugin used before the online members were cached, kept as a baseline.
+     * @return Online members of the party.
+     */
+    private List<ProxiedPlayer> getMembersWithScan() {
+        List<ProxiedPlayer> members = new ArrayList<>();
+
+        for(UUID uuid : party.getMemberUUIDs()) {
+            ProxiedPlayer player = plugin.getProxy().getPlayer(uuid);
+            if(player != null) {
+                members.add(player);
+            }
+        }
+
+        return members;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.benchmarks;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.TestProxy;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.party.PartyManager;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up parties with 1k, 10k and 100k parties on the proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartyManagerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int parties;
+
+    private JadedPartyPlugin plugin;
+    private PartyManager partyManager;
+    private ProxiedPlayer[] leaders;
+    private UUID[] partyUUIDs;
+    private ProxiedPlayer playerWithoutParty;
+    private int index = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TestProxy proxy = new TestProxy();
+        leaders = new ProxiedPlayer[parties];
+        partyUUIDs = new UUID[parties];
+
+        for(int i = 0; i < parties; i++) {
+            leaders[i] = proxy.addPlayer("Leader" + i, null);
+        }
+
+        playerWithoutParty = proxy.addPlayer("Loner", null);
+        plugin = proxy.enablePlugin();
+        partyManager = plugin.partyManager();
+
+        for(int i = 0; i < parties; i++) {
+            partyUUIDs[i] = partyManager.createParty(leaders[i]).getUUID();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        plugin.onDisable();
+    }
+
+    @Benchmark
+    public Party getPartyByPlayer() {
+        return partyManager.getParty(leaders[next()]);
+    }
+
+    @Benchmark
+    public Party getPartyByUUID() {
+        return partyManager.getParty(partyUUIDs[next()]);
+    }
+
+    @Benchmark
+    public Party getPartyWithoutParty() {
+        return partyManager.getParty(playerWithoutParty);
+    }
+
+    /**
+     * Moves to the next party, so lookups aren't always served from the same cache line.
+     * @return Index of the party.
+     */
+    private int next() {
+        if(++index == parties) {
+            index = 0;
+        }
+
+        return index;
+    }
+}
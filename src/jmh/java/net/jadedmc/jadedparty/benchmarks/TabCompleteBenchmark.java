@@ -0,0 +1,99 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.benchmarks;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.TestProxy;
+import net.jadedmc.jadedparty.commands.PartyCMD;
+import net.jadedmc.jadedparty.party.Party;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tab completing /party with 2,000 players online.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabCompleteBenchmark {
+    private static final int ONLINE_PLAYERS = 2000;
+    private static final int PARTY_SIZE = 20;
+
+    private JadedPartyPlugin plugin;
+    private PartyCMD command;
+    private ProxiedPlayer leader;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TestProxy proxy = new TestProxy();
+
+        ProxiedPlayer[] players = new ProxiedPlayer[ONLINE_PLAYERS];
+        for(int i = 0; i < ONLINE_PLAYERS; i++) {
+            players[i] = proxy.addPlayer("Player" + i, null);
+        }
+
+        plugin = proxy.enablePlugin();
+        command = new PartyCMD(plugin);
+        leader = players[0];
+
+        Party party = plugin.partyManager().createParty(leader);
+        for(int i = 1; i < PARTY_SIZE; i++) {
+            party.addPlayer(players[i]).join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        plugin.onDisable();
+    }
+
+    /**
+     * "/party p" suggests the promote subcommand and every player whose name starts with p.
+     */
+    @Benchmark
+    public Iterable<String> completeFirstArgument() {
+        return command.onTabComplete(leader, new String[]{"p"});
+    }
+
+    @Benchmark
+    public Iterable<String> completeInvite() {
+        return command.onTabComplete(leader, new String[]{"invite", "Player1"});
+    }
+
+    @Benchmark
+    public Iterable<String> completeInviteNoMatch() {
+        return command.onTabComplete(leader, new String[]{"invite", "Nobody"});
+    }
+
+    @Benchmark
+    public Iterable<String> completeKick() {
+        return command.onTabComplete(leader, new String[]{"kick", ""});
+    }
+}
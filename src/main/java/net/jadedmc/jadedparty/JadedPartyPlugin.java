@@ -24,51 +24,291 @@
  */
 package net.jadedmc.jadedparty;
 
-import com.google.common.io.ByteArrayDataOutput;
-import com.google.common.io.ByteStreams;
 import net.jadedmc.jadedparty.commands.PartyCMD;
+import net.jadedmc.jadedparty.executor.PartyExecutor;
+import net.jadedmc.jadedparty.metrics.PartyMetrics;
 import net.jadedmc.jadedparty.listeners.PlayerDisconnectListener;
+import net.jadedmc.jadedparty.listeners.PluginMessageListener;
+import net.jadedmc.jadedparty.listeners.PostLoginListener;
 import net.jadedmc.jadedparty.listeners.ServerSwitchListener;
+import net.jadedmc.jadedparty.party.InviteManager;
 import net.jadedmc.jadedparty.party.PartyManager;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+import net.jadedmc.jadedparty.party.ReconnectManager;
+import net.jadedmc.jadedparty.party.SummonManager;
+import net.jadedmc.jadedparty.persistence.PartyJournal;
+import net.jadedmc.jadedparty.settings.SettingsManager;
+import net.jadedmc.jadedparty.sync.PartyMessageEncoder;
+import net.jadedmc.jadedparty.sync.PartySyncTask;
+import net.jadedmc.jadedparty.sync.SyncProtocol;
+import net.jadedmc.jadedparty.utils.PlayerNameIndex;
 import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
 import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.plugin.PluginDescription;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 public final class JadedPartyPlugin extends Plugin {
     private PartyManager partyManager;
+    private InviteManager inviteManager;
+    private SettingsManager settingsManager;
+    private PartyMessageEncoder messageEncoder;
+    private PartySyncTask syncTask;
+    private PlayerNameIndex nameIndex;
+    private PartyExecutor partyExecutor;
+    private SummonManager summonManager;
+    private PartyJournal partyJournal;
+    private ReconnectManager reconnectManager;
+    private PartyMetrics partyMetrics;
+
+    /**
+     * Creates the plugin. Used by BungeeCord when loading the plugin.
+     */
+    public JadedPartyPlugin() {
+        super();
+    }
+
+    /**
+     * Creates the plugin outside of BungeeCord's plugin loader, such as in tests and benchmarks.
+     * @param proxy Proxy the plugin runs on.
+     * @param description Description of the plugin.
+     */
+    public JadedPartyPlugin(ProxyServer proxy, PluginDescription description) {
+        super(proxy, description);
+    }
 
     @Override
     public void onEnable() {
+        settingsManager = new SettingsManager(this);
+
+        // Created first, so everything after it can record metrics.
+        partyMetrics = new PartyMetrics(this, PartyCMD.SUB_COMMANDS);
+        getProxy().getScheduler().schedule(this, partyMetrics, 1, 1, TimeUnit.SECONDS);
+        messageEncoder = new PartyMessageEncoder(SyncProtocol.fromString(settingsManager.getConfig().getString("sync.protocol", "legacy")));
         partyManager = new PartyManager(this);
 
+        // Runs commands and listener work off the Netty I/O threads.
+        partyExecutor = new PartyExecutor(this, settingsManager.getConfig().getInt("executor.fallback-threads", 4));
+
+        // Keeps disconnected players in their party for a while, instead of removing them right away.
+        reconnectManager = new ReconnectManager(this, settingsManager.getConfig().getInt("reconnect.grace-seconds", 120));
+
+        // Brings back the parties that existed when the proxy stopped.
+        if(settingsManager.getConfig().getBoolean("persistence.enabled", true)) {
+            partyJournal = createPartyJournal();
+        }
+
+        // Expires invites, ticking once per second.
+        inviteManager = new InviteManager(this, settingsManager.getConfig().getInt("invites.expire-seconds", 60));
+        getProxy().getScheduler().schedule(this, inviteManager, 1, 1, TimeUnit.SECONDS);
+
+        // Moves summoned members in waves, so the leader's server isn't hit with every login at once.
+        summonManager = new SummonManager(this, settingsManager.getConfig().getInt("summon.wave-size", 5), settingsManager.getConfig().getLong("summon.wave-interval-ms", 500));
+
+        // Flushes coalesced party syncs. An interval of 0 sends every sync right away.
+        long syncInterval = settingsManager.getConfig().getLong("sync.interval-ms", 50);
+        syncTask = new PartySyncTask(syncInterval <= 0);
+        if(syncInterval > 0) {
+            getProxy().getScheduler().schedule(this, syncTask, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        }
+
+        // Members who are not online get the same grace period as players who just disconnected.
+        // Runs once syncs can be queued, since members may be removed right away.
+        for(Party party : partyManager.getParties()) {
+            reconnectManager.markOfflineMembers(party);
+        }
+
+        // Indexes players who were already online, in case the plugin was loaded late.
+        nameIndex = new PlayerNameIndex();
+        for(ProxiedPlayer player : getProxy().getPlayers()) {
+            nameIndex.add(player);
+        }
+
         getProxy().getPluginManager().registerListener(this, new PlayerDisconnectListener(this));
+        getProxy().getPluginManager().registerListener(this, new PostLoginListener(this));
+        getProxy().getPluginManager().registerListener(this, new PluginMessageListener(this));
         getProxy().getPluginManager().registerListener(this, new ServerSwitchListener(this));
 
         getProxy().getPluginManager().registerCommand(this, new PartyCMD(this));
+        getProxy().registerChannel(PartyMessageEncoder.CHANNEL);
+        partyMetrics.register();
     }
 
     @Override
     public void onDisable() {
-        // Plugin shutdown logic
+        if(partyMetrics != null) {
+            partyMetrics.unregister();
+        }
+
+        // Stops the invite wheel, summon waves and grace periods before the executor they submit work to shuts down.
+        getProxy().getScheduler().cancel(this);
+
+        // Offline members stay in their party, so they are saved with it.
+        if(reconnectManager != null) {
+            reconnectManager.shutdown();
+        }
+
+        // Sends any syncs that are still waiting for the next interval.
+        if(syncTask != null) {
+            syncTask.run();
+        }
+
+        // Lets commands and syncs that are already queued finish.
+        if(partyExecutor != null) {
+            partyExecutor.shutdown(5, TimeUnit.SECONDS);
+        }
+
+        // Writes a final snapshot, so the next start doesn't have to replay the journal.
+        if(partyJournal != null) {
+            partyJournal.close(partyManager::snapshotParties);
+        }
+
+        // Publishes the last changes to other proxies.
+        if(partyManager != null && partyManager.getStore() != null) {
+            partyManager.getStore().close();
+        }
+    }
+
+    /**
+     * Restores the saved parties and starts the journal.
+     * Parties are not saved if the journal could not be read, so a damaged journal is never overwritten.
+     * @return The journal, or null if it could not be started.
+     */
+    private PartyJournal createPartyJournal() {
+        PartyJournal journal = new PartyJournal(new File(getDataFolder(), "data").toPath(), getLogger());
+
+        try {
+            long start = System.currentTimeMillis();
+            int restored = 0;
+
+            for(PartySnapshot snapshot : journal.restore()) {
+                Party party = partyManager.restoreParty(snapshot);
+
+                // Parties that lost members or were dropped while restoring are saved that way.
+                if(party == null) {
+                    journal.recordDisband(snapshot.uuid());
+                }
+                else {
+                    restored++;
+
+                    if(party.getVersion() != snapshot.version()) {
+                        journal.recordSync(PartySnapshot.of(party));
+                    }
+                }
+            }
+
+            getLogger().info("Restored " + restored + " parties in " + (System.currentTimeMillis() - start) + "ms.");
+
+            long flushInterval = Math.max(1, settingsManager.getConfig().getLong("persistence.flush-interval-ms", 100));
+            long compactInterval = Math.max(1, settingsManager.getConfig().getLong("persistence.compact-interval-seconds", 300));
+            journal.start(flushInterval, compactInterval, partyManager::snapshotParties);
+            return journal;
+        }
+        catch (IOException exception) {
+            getLogger().log(Level.SEVERE, "Could not load the party journal, parties will not be saved.", exception);
+            return null;
+        }
     }
 
     public PartyManager partyManager() {
         return partyManager;
     }
 
-    public void sendCustomData(ProxiedPlayer player, String subChannel, String message) {
-        Collection<ProxiedPlayer> networkPlayers = ProxyServer.getInstance().getPlayers();
+    public InviteManager inviteManager() {
+        return inviteManager;
+    }
+
+    public PartyMessageEncoder messageEncoder() {
+        return messageEncoder;
+    }
+
+    public SettingsManager settingsManager() {
+        return settingsManager;
+    }
+
+    public PartySyncTask syncTask() {
+        return syncTask;
+    }
+
+    public PartyExecutor partyExecutor() {
+        return partyExecutor;
+    }
+
+    public SummonManager summonManager() {
+        return summonManager;
+    }
+
+    public PartyJournal partyJournal() {
+        return partyJournal;
+    }
+
+    public ReconnectManager reconnectManager() {
+        return reconnectManager;
+    }
+
+    public PartyMetrics partyMetrics() {
+        return partyMetrics;
+    }
+
+    public PlayerNameIndex nameIndex() {
+        return nameIndex;
+    }
 
-        if (networkPlayers == null || networkPlayers.isEmpty()) {
+    /**
+     * Sends an encoded party message to a player's backend server.
+     * @param player Player whose server should receive the message.
+     * @param data Message created by the PartyMessageEncoder.
+     */
+    public void sendCustomData(ProxiedPlayer player, byte[] data) {
+        // Players who are still connecting don't have a server yet.
+        Server server = player.getServer();
+        if(server == null) {
             return;
         }
 
-        ByteArrayDataOutput out = ByteStreams.newDataOutput();
-        out.writeUTF(subChannel);
-        out.writeUTF(message);
+        sendCustomData(server.getInfo(), data);
+    }
+
+    /**
+     * Sends an encoded party message to the backend servers of a group of players.
+     * Each server only receives the message once, no matter how many of the players are on it.
+     * @param players Players whose servers should receive the message.
+     * @param data Message created by the PartyMessageEncoder.
+     */
+    public void sendCustomData(Collection<ProxiedPlayer> players, byte[] data) {
+        Set<ServerInfo> servers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for(ProxiedPlayer player : players) {
+            // Players who are still connecting don't have a server yet.
+            Server server = player.getServer();
+            if(server == null) {
+                continue;
+            }
+
+            if(servers.add(server.getInfo())) {
+                sendCustomData(server.getInfo(), data);
+            }
+        }
+    }
 
-        player.getServer().getInfo().sendData( "jadedmc:party", out.toByteArray() );
+    /**
+     * Sends an encoded party message to a backend server.
+     * @param server Server that should receive the message.
+     * @param data Message created by the PartyMessageEncoder.
+     */
+    public void sendCustomData(ServerInfo server, byte[] data) {
+        server.sendData(PartyMessageEncoder.CHANNEL, data);
+        partyMetrics.recordSync(data.length);
     }
 }
\ No newline at end of file
@@ -25,24 +25,113 @@
 package net.jadedmc.jadedparty.commands;
 
 import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.metrics.PartyMetrics;
 import net.jadedmc.jadedparty.party.Party;
 import net.jadedmc.jadedparty.party.PartyRank;
-import net.jadedmc.jadedparty.utils.ChatUtils;
+import net.jadedmc.jadedparty.utils.ChatBlock;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
 import net.jadedmc.jadedparty.utils.StringUtils;
 import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Command;
 import net.md_5.bungee.api.plugin.TabExecutor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * This class runs the /party command, which controls everything about parties.
  */
 public class PartyCMD extends Command implements TabExecutor {
+    // Messages are parsed once, when the class is loaded.
+    private static final MessageTemplate USAGE_ACCEPT = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party accept [player]");
+    private static final MessageTemplate ERROR_PLAYER_NOT_ONLINE = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>That player is not online");
+    private static final MessageTemplate ERROR_TARGET_NO_PARTY = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>That player is not in a party");
+    private static final MessageTemplate ERROR_NO_INVITE = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You do not have an invite to that party.");
+    private static final MessageTemplate ERROR_COULD_NOT_JOIN = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You could not join that party.");
+    private static final MessageTemplate ERROR_ALREADY_IN_PARTY = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You are already in a party.");
+    private static final MessageTemplate PARTY_CREATED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>Party has been created.");
+    private static final MessageTemplate USAGE_DECLINE = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party decline [player]");
+    private static final MessageTemplate INVITE_DECLINED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>You have declined the invite.");
+    private static final MessageTemplate ERROR_NOT_IN_PARTY = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+    private static final MessageTemplate ERROR_ONLY_LEADER_DISBAND = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>Only the party leader can disband the party!");
+    private static final MessageTemplate USAGE_INVITE = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party invite [player]");
+    private static final MessageTemplate ERROR_PERSON_NOT_ONLINE = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>That person is not online.");
+    private static final MessageTemplate ERROR_TARGET_IN_PARTY = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>They are already in a party.");
+    private static final MessageTemplate ERROR_INVITE_SELF = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You cannot invite yourself.");
+    private static final MessageTemplate ERROR_CANNOT_INVITE = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You are not allowed to invite people to the party.");
+    private static final MessageTemplate ERROR_ALREADY_INVITED = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You already have a pending invite to that person.");
+    private static final MessageTemplate USAGE_JOIN = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party join [player]");
+    private static final MessageTemplate ERROR_TARGET_NOT_IN_PARTY = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>They are not in a party.");
+    private static final MessageTemplate ERROR_PARTY_NOT_PUBLIC = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>That party is not public.");
+    private static final MessageTemplate USAGE_KICK = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party kick [player]");
+    private static final MessageTemplate ERROR_ONLY_MODERATOR_KICK = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>Only party moderators can kick members!");
+    private static final MessageTemplate ERROR_NOT_IN_YOUR_PARTY = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>That player is not in your party!");
+    private static final MessageTemplate ERROR_CANNOT_KICK = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You cannot kick that player!!");
+    private static final MessageTemplate KICKED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>You have been kicked from the party.");
+    private static final MessageTemplate LEFT_PARTY = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>You have left the party.");
+    private static final MessageTemplate USAGE_PROMOTE = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party promote [player]");
+    private static final MessageTemplate ERROR_ONLY_LEADER_PROMOTE = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>Only the party leader can promote members!");
+    private static final MessageTemplate ERROR_ALREADY_LEADER = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You are already the party leader!");
+    private static final MessageTemplate ERROR_ONLY_LEADER_SUMMON = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>Only the party leader can summon players!");
+    private static final MessageTemplate MEMBER_JOINED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas joined the party.", "player");
+    private static final MessageTemplate MEMBER_DECLINED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas declined the invite.", "player");
+    private static final MessageTemplate PARTY_DISBANDED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>Party has been disbanded.");
+    private static final MessageTemplate MEMBER_INVITED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas been invited to the party.", "player");
+    private static final MessageTemplate MEMBER_KICKED = MessageTemplate.of("&a&lParty &8» &f<target> &awas kicked from the party by &f<player>&a.", "target", "player");
+    private static final MessageTemplate MEMBER_LEFT = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas left the party.", "player");
+    private static final MessageTemplate PROMOTED_MODERATOR = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas been promoted to moderator.", "player");
+    private static final MessageTemplate PROMOTED_LEADER = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ahas been promoted to party leader.", "player");
+    private static final MessageTemplate SUMMONING = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>Summoning your party to your server...");
+
+    private static final MessageTemplate BLANK_LINE = MessageTemplate.of("");
+    private static final MessageTemplate DIVIDER = MessageTemplate.of("&8&m+-----------------------***-----------------------+");
+    private static final BaseComponent[] HELP = new ChatBlock()
+            .add(DIVIDER)
+            .addCentered("&a&lParty Commands")
+            .add("&a  /party chat")
+            .add("&a  /party create")
+            .add("&a  /party disband")
+            .add("&a  /party invite [player]")
+            .add("&a  /party leave")
+            .add("&a  /party list")
+            .add("&a  /party promote")
+            .add(DIVIDER)
+            .build();
+    private static final BaseComponent[] LIST_HEADER = new ChatBlock()
+            .add(DIVIDER)
+            .addCentered("&a&lParty Members")
+            .add(BLANK_LINE)
+            .build();
+    private static final BaseComponent[] LIST_FOOTER = new ChatBlock()
+            .add(BLANK_LINE)
+            .add(DIVIDER)
+            .build();
+    private static final MessageTemplate LIST_LEADER = MessageTemplate.of("&aLeader &7» &f<leader>", "leader");
+    private static final MessageTemplate LIST_MODERATORS = MessageTemplate.of("&aModerators &7[<count>] » &f<names>", "count", "names");
+    private static final MessageTemplate LIST_MEMBERS = MessageTemplate.of("&aMembers &7[<count>] » &f<names>", "count", "names");
+    private static final BaseComponent[] INVITE_HEADER = new ChatBlock()
+            .add("&a▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬")
+            .addCentered("&a&lParty Invite")
+            .add(BLANK_LINE)
+            .build();
+    private static final MessageTemplate INVITE_BORDER = MessageTemplate.of("&a▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+    private static final MessageTemplate INVITE_ACCEPT = MessageTemplate.of("  <dark_gray>» <click:suggest_command:'/party accept <player>'><hover:show_text:'<green>Click to accept'><green>/party accept <player></hover></click>", "player");
+    private static final MessageTemplate INVITE_DENY = MessageTemplate.of("  <dark_gray>» <click:suggest_command:'/party deny <player>'><hover:show_text:'<red>Click to deny'><red>/party deny <player></hover></click>", "player");
+    private static final MessageTemplate USAGE_DEBUG = MessageTemplate.of("<red><bold>Usage</bold> <dark_gray>» <red>/party debug stats");
+    private static final MessageTemplate ERROR_NO_PERMISSION = MessageTemplate.of("<red><bold>Error</bold> <dark_gray>» <red>You do not have access to that command.");
+    private static final MessageTemplate DEBUG_STAT = MessageTemplate.of("&a<label> &7» &f<value>", "label", "value");
+    private static final String ADMIN_PERMISSION = "jadedparty.admin";
+
+    // Names of the subcommands, used for tab completion and per subcommand metrics.
+    public static final String[] SUB_COMMANDS = {"accept", "create", "debug", "decline", "disband", "help", "invite", "kick", "leave", "list", "promote", "summon"};
+
     private final JadedPartyPlugin plugin;
+    private final int maxSuggestions;
 
     /**
      * Executes the command.
@@ -50,6 +139,7 @@ public class PartyCMD extends Command implements TabExecutor {
     public PartyCMD(JadedPartyPlugin plugin) {
         super("party", "", "p");
         this.plugin = plugin;
+        this.maxSuggestions = Math.max(1, plugin.settingsManager().getConfig().getInt("tab-complete.max-results", 50));
     }
 
     /**
@@ -59,7 +149,52 @@ public class PartyCMD extends Command implements TabExecutor {
      */
     public void execute(CommandSender sender, String[] args) {
         ProxiedPlayer player = (ProxiedPlayer) sender;
+        long start = System.nanoTime();
+
+        // Commands are dispatched on the player's network thread, so the work is moved to the party executor.
+        plugin.partyExecutor().execute(player, () -> {
+            try {
+                runCommand(player, args);
+            }
+            finally {
+                // Includes the time spent waiting for the executor, since players wait for that too.
+                plugin.partyMetrics().recordCommand(getSubCommand(args), System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Gets the full name of the subcommand used, resolving aliases.
+     * @param args Arguments of the command.
+     * @return Name of the subcommand.
+     */
+    private static String getSubCommand(String[] args) {
+        if(args.length == 0) {
+            return "help";
+        }
+
+        return switch (args[0].toLowerCase()) {
+            case "create" -> "create";
+            case "disband" -> "disband";
+            case "leave" -> "leave";
+            case "kick" -> "kick";
+            case "summon" -> "summon";
+            case "debug" -> "debug";
+            case "list", "l" -> "list";
+            case "promote", "p" -> "promote";
+            case "accept", "a" -> "accept";
+            case "decline", "d" -> "decline";
+            case "help", "?" -> "help";
+            default -> "invite";
+        };
+    }
 
+    /**
+     * Runs the subcommand a player used.
+     * @param player Player who ran the command.
+     * @param args Arguments of the command.
+     */
+    private void runCommand(ProxiedPlayer player, String[] args) {
         if(args.length == 0) {
             helpCMD(player);
             return;
@@ -77,6 +212,7 @@ public class PartyCMD extends Command implements TabExecutor {
             case "kick" -> kickCMD(player, args);
             case "summon" -> summonCMD(player);
             case "help", "?" -> helpCMD(player);
+            case "debug" -> debugCMD(player, args);
             default -> inviteCMD(player, new String[]{"invite", args[0]});
         }
     }
@@ -89,7 +225,7 @@ public class PartyCMD extends Command implements TabExecutor {
     private void acceptCMD(ProxiedPlayer player, String[] args) {
         // Makes sure the player is using the command correctly.
         if(args.length == 1) {
-            ChatUtils.chat(player, "<red><bold>Usage</bold> <dark_gray>» <red>/party accept [player]");
+            USAGE_ACCEPT.send(player);
             return;
         }
 
@@ -98,7 +234,7 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure the target player is online.
         if(target == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That player is not online");
+            ERROR_PLAYER_NOT_ONLINE.send(player);
             return;
         }
 
@@ -107,18 +243,25 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure the player is in a party.
         if(party == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That player is not in a party");
+            ERROR_TARGET_NO_PARTY.send(player);
             return;
         }
 
         // Makes sure the player has an invitation to the party.
-        if(!party.getInvites().contains(player)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You do not have an invite to that party.");
+        if(!plugin.inviteManager().hasInvite(player.getUniqueId(), party.getUUID())) {
+            ERROR_NO_INVITE.send(player);
             return;
         }
 
-        party.addPlayer(player);
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + player.getName() + " &ahas joined the party.");
+        // Makes sure the player was able to join, and that the invite did not expire in the meantime.
+        party.acceptInvite(player).thenAccept(joined -> {
+            if(!joined) {
+                ERROR_COULD_NOT_JOIN.send(player);
+                return;
+            }
+
+            party.sendMessage(MEMBER_JOINED.render(player.getName()));
+        });
     }
 
     /**
@@ -127,14 +270,14 @@ public class PartyCMD extends Command implements TabExecutor {
      */
     private void createCMD(ProxiedPlayer player) {
         // Makes sure the player is not already in a party.
-        if(plugin.partyManager().getParty(player) != null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are already in a party.");
+        if(plugin.partyManager().isInParty(player.getUniqueId())) {
+            ERROR_ALREADY_IN_PARTY.send(player);
             return;
         }
 
         // Creates the party.
         plugin.partyManager().createParty(player);
-        ChatUtils.chat(player, "<green><bold>Party</bold> <dark_gray>» <green>Party has been created.");
+        PARTY_CREATED.send(player);
     }
 
     /**
@@ -145,7 +288,7 @@ public class PartyCMD extends Command implements TabExecutor {
     private void declineCMD(ProxiedPlayer player, String[] args) {
         // Makes sure the player is using the command correctly.
         if(args.length == 1) {
-            ChatUtils.chat(player, "<red><bold>Usage</bold> <dark_gray>» <red>/party decline [player]");
+            USAGE_DECLINE.send(player);
             return;
         }
 
@@ -154,7 +297,7 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure the target player is online.
         if(target == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That player is not online");
+            ERROR_PLAYER_NOT_ONLINE.send(player);
             return;
         }
 
@@ -163,20 +306,21 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure the party exists.
         if(party == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That player is not in a party");
+            ERROR_TARGET_NO_PARTY.send(player);
             return;
         }
 
         // Makes sure the player has an invite to the party.
-        if(!party.getInvites().contains(player)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You do not have an invite to that party.");
+        if(!plugin.inviteManager().hasInvite(player.getUniqueId(), party.getUUID())) {
+            ERROR_NO_INVITE.send(player);
             return;
         }
 
         // Declines the invite.
-        party.removeInvite(player);
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + player.getName() + " &ahas declined the invite.");
-        ChatUtils.chat(player, "<green><bold>Party</bold> <dark_gray>» <green>You have declined the invite.");
+        party.removeInvite(player).thenRun(() -> {
+            party.sendMessage(MEMBER_DECLINED.render(player.getName()));
+            INVITE_DECLINED.send(player);
+        });
     }
 
     /**
@@ -186,7 +330,7 @@ public class PartyCMD extends Command implements TabExecutor {
     private void disbandCMD(ProxiedPlayer player) {
         // Makes sure the player is in a party.
         if(plugin.partyManager().getParty(player) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+            ERROR_NOT_IN_PARTY.send(player);
             return;
         }
 
@@ -195,13 +339,12 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure the player has permission to disband the party.
         if(party.getRank(player) != PartyRank.LEADER) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>Only the party leader can disband the party!");
+            ERROR_ONLY_LEADER_DISBAND.send(player);
             return;
         }
 
         // Disbands the party.
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <green>Party has been disbanded.");
-        plugin.partyManager().disbandParty(party);
+        plugin.partyManager().disbandParty(party, PARTY_DISBANDED.render());
     }
 
     /**
@@ -209,16 +352,7 @@ public class PartyCMD extends Command implements TabExecutor {
      * @param player Player who ran the command.
      */
     private void helpCMD(ProxiedPlayer player) {
-        ChatUtils.chat(player, "&8&m+-----------------------***-----------------------+");
-        ChatUtils.centeredChat(player, "&a&lParty Commands");
-        ChatUtils.chat(player, "&a  /party chat");
-        ChatUtils.chat(player, "&a  /party create");
-        ChatUtils.chat(player, "&a  /party disband");
-        ChatUtils.chat(player, "&a  /party invite [player]");
-        ChatUtils.chat(player, "&a  /party leave");
-        ChatUtils.chat(player, "&a  /party list");
-        ChatUtils.chat(player, "&a  /party promote");
-        ChatUtils.chat(player, "&8&m+-----------------------***-----------------------+");
+        player.sendMessage(HELP);
     }
 
     /**
@@ -229,26 +363,26 @@ public class PartyCMD extends Command implements TabExecutor {
     private void inviteCMD(ProxiedPlayer player, String[] args) {
         // Makes sure the player has enterted a username to invite.
         if(args.length != 2) {
-            ChatUtils.chat(player, "<red><bold>Usage</bold> <dark_gray>» <red>/party invite [player]");
+            USAGE_INVITE.send(player);
             return;
         }
 
         // Makes sure the target is online.
         ProxiedPlayer target = plugin.getProxy().getPlayer(args[1]);
         if(target == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That person is not online.");
+            ERROR_PERSON_NOT_ONLINE.send(player);
             return;
         }
 
         // Makes sure they are not already in a party.
-        if(plugin.partyManager().getParty(target) != null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>They are already in a party.");
+        if(plugin.partyManager().isInParty(target.getUniqueId())) {
+            ERROR_TARGET_IN_PARTY.send(player);
             return;
         }
 
         // Makes sure the player is not trying to invite themselves.
         if(target.equals(player)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You cannot invite yourself.");
+            ERROR_INVITE_SELF.send(player);
             return;
         }
 
@@ -256,7 +390,7 @@ public class PartyCMD extends Command implements TabExecutor {
         if(plugin.partyManager().getParty(player) == null) {
             // Creates the party.
             plugin.partyManager().createParty(player);
-            ChatUtils.chat(player, "<green><bold>Party</bold> <dark_gray>» <green>Party as been created.");
+            PARTY_CREATED.send(player);
         }
 
         // Gets the player's party,
@@ -264,54 +398,54 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure the player has permission to invite someone to the party.
         if(!(party.getRank(player) == PartyRank.LEADER || party.getRank(player) == PartyRank.MODERATOR)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not allowed to invite people to the party.");
+            ERROR_CANNOT_INVITE.send(player);
             return;
         }
 
         // Makes sure the player wasn't already invited.
-        if(party.getInvites().contains(target)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You already have a pending invite to that person.");
+        if(plugin.inviteManager().hasInvite(target.getUniqueId(), party.getUUID())) {
+            ERROR_ALREADY_INVITED.send(player);
             return;
         }
 
         party.invitePlayer(target);
 
-        ChatUtils.chat(target, "&a▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        ChatUtils.centeredChat(target, "&a&lParty Invite");
-        ChatUtils.chat(target, "");
-        ChatUtils.centeredChat(target, "&f" + player.getName() + " &7has invited you to join their party!");
-        ChatUtils.chat(target, "");
-        ChatUtils.chat(target, "  <dark_gray>» <click:suggest_command:'/party accept " + player.getName() + "'><hover:show_text:'<green>Click to accept'><green>/party accept " + player.getName() + "</hover></click>");
-        ChatUtils.chat(target, "  <dark_gray>» <click:suggest_command:'/party deny " + player.getName() + "'><hover:show_text:'<red>Click to deny'><red>/party deny " + player.getName() + "</hover></click>");
-        ChatUtils.chat(target, "");
-        ChatUtils.chat(target, "&a▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + target.getName() + " &ahas been invited to the party.");
+        new ChatBlock()
+                .add(INVITE_HEADER)
+                .addCenteredUncached("&f" + player.getName() + " &7has invited you to join their party!")
+                .add(BLANK_LINE)
+                .add(INVITE_ACCEPT, player.getName())
+                .add(INVITE_DENY, player.getName())
+                .add(BLANK_LINE)
+                .add(INVITE_BORDER)
+                .send(target);
+
+        party.sendMessage(MEMBER_INVITED.render(target.getName()));
     }
 
     public void joinCMD(ProxiedPlayer player, String[] args) {
         // Makes sure the player has entered a username to invite.
         if(args.length != 2) {
-            ChatUtils.chat(player, "<red><bold>Usage</bold> <dark_gray>» <red>/party join [player]");
+            USAGE_JOIN.send(player);
             return;
         }
 
         // Makes sure the target is online.
         ProxiedPlayer target = plugin.getProxy().getPlayer(args[1]);
         if(target == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That person is not online.");
+            ERROR_PERSON_NOT_ONLINE.send(player);
             return;
         }
 
         // Makes sure the target is in a party.
         if(plugin.partyManager().getParty(target) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>They are not in a party.");
+            ERROR_TARGET_NOT_IN_PARTY.send(player);
             return;
         }
 
         // Make sure the sender isn't in a party.
-        if(plugin.partyManager().getParty(player) != null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are already in a party.");
+        if(plugin.partyManager().isInParty(player.getUniqueId())) {
+            ERROR_ALREADY_IN_PARTY.send(player);
             return;
         }
 
@@ -319,24 +453,31 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Make sure the party is public.
         if(!party.isPublic()) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That party is not public.");
+            ERROR_PARTY_NOT_PUBLIC.send(player);
             return;
         }
 
-        party.addPlayer(player);
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + player.getName() + " &ahas joined the party.");
+        // Makes sure the player was able to join.
+        party.addPlayer(player).thenAccept(joined -> {
+            if(!joined) {
+                ERROR_COULD_NOT_JOIN.send(player);
+                return;
+            }
+
+            party.sendMessage(MEMBER_JOINED.render(player.getName()));
+        });
     }
 
     public void kickCMD(ProxiedPlayer player, String[] args) {
         // Makes sure the player is in a party.
         if(plugin.partyManager().getParty(player) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+            ERROR_NOT_IN_PARTY.send(player);
             return;
         }
 
         // Makes sure the player is using the command correctly.
         if(args.length == 1) {
-            ChatUtils.chat(player, "<red><bold>Usage</bold> <dark_gray>» <red>/party kick [player]");
+            USAGE_KICK.send(player);
             return;
         }
 
@@ -345,7 +486,7 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure they have permission.
         if(party.getRank(player) != PartyRank.LEADER && party.getRank(player) != PartyRank.MODERATOR) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>Only party moderators can kick members!");
+            ERROR_ONLY_MODERATOR_KICK.send(player);
             return;
         }
 
@@ -353,19 +494,20 @@ public class PartyCMD extends Command implements TabExecutor {
         ProxiedPlayer target = plugin.getProxy().getPlayer(args[1]);
 
         // Makes sure the target is in the party.
-        if(target == null || !party.getMembers().contains(target)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That player is not in your party!");
+        if(target == null || party.getRank(target) == null) {
+            ERROR_NOT_IN_YOUR_PARTY.send(player);
             return;
         }
 
         if(party.getRank(player) == party.getRank(target) || party.getRank(target) == PartyRank.LEADER) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You cannot kick that player!!");
+            ERROR_CANNOT_KICK.send(player);
             return;
         }
 
-        party.removePlayer(target);
-        party.sendMessage("&a&lParty &8» &f" + target.getName() + " &awas kicked from the party by &f" + player.getName() + "&a.");
-        ChatUtils.chat(target, "<green><bold>Party</bold> <dark_gray>» <green>You have been kicked from the party.");
+        party.removePlayer(target).thenRun(() -> {
+            party.sendMessage(MEMBER_KICKED.render(target.getName(), player.getName()));
+            KICKED.send(target);
+        });
     }
 
     /**
@@ -375,7 +517,7 @@ public class PartyCMD extends Command implements TabExecutor {
     private void leaveCMD(ProxiedPlayer player) {
         // Makes sure the player is in a party.
         if(plugin.partyManager().getParty(player) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+            ERROR_NOT_IN_PARTY.send(player);
             return;
         }
 
@@ -383,9 +525,10 @@ public class PartyCMD extends Command implements TabExecutor {
         Party party = plugin.partyManager().getParty(player);
 
         // Removes the player
-        party.removePlayer(player);
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + player.getName() + " &ahas left the party.");
-        ChatUtils.chat(player, "<green><bold>Party</bold> <dark_gray>» <green>You have left the party.");
+        party.removePlayer(player).thenRun(() -> {
+            party.sendMessage(MEMBER_LEFT.render(player.getName()));
+            LEFT_PARTY.send(player);
+        });
     }
 
     /**
@@ -395,7 +538,7 @@ public class PartyCMD extends Command implements TabExecutor {
     private void listCMD(ProxiedPlayer player) {
         // Makes sure the player is in a party.
         if(plugin.partyManager().getParty(player) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+            ERROR_NOT_IN_PARTY.send(player);
             return;
         }
 
@@ -403,31 +546,24 @@ public class PartyCMD extends Command implements TabExecutor {
         Party party = plugin.partyManager().getParty(player);
 
         // Gets all the party members and their roles.
-        String leader = "";
-        List<String> moderators = new ArrayList<>();
-        List<String> members = new ArrayList<>();
-        for(ProxiedPlayer member : party.getMembers()) {
-            switch (party.getRank(member)) {
-                case LEADER -> leader = member.getName();
-                case MODERATOR -> moderators.add(member.getName());
-                case MEMBER -> members.add(member.getName());
-            }
-        }
+        ProxiedPlayer partyLeader = party.getLeader();
+        String leader = partyLeader == null ? "" : partyLeader.getName();
+        List<String> moderators = getOnlineNames(party.getMemberUUIDs(PartyRank.MODERATOR));
+        List<String> members = getOnlineNames(party.getMemberUUIDs(PartyRank.MEMBER));
 
         // Displays the list
-        ChatUtils.chat(player, "&8&m+-----------------------***-----------------------+");
-        ChatUtils.centeredChat(player, "&a&lParty Members");
-        ChatUtils.chat(player, "");
-        ChatUtils.chat(player, "&aLeader &7» &f" + leader);
+        ChatBlock list = new ChatBlock()
+                .add(LIST_HEADER)
+                .add(LIST_LEADER, leader);
 
         // Only show moderators if there are any.
         if(moderators.size() > 0) {
-            ChatUtils.chat(player, "&aModerators &7[" + moderators.size() + "] » &f" + StringUtils.join(moderators, ", "));
+            list.add(LIST_MODERATORS, String.valueOf(moderators.size()), StringUtils.join(moderators, ", "));
         }
 
-        ChatUtils.chat(player, "&aMembers &7[" + members.size() + "] » &f" + StringUtils.join(members, ", "));
-        ChatUtils.chat(player, "");
-        ChatUtils.chat(player, "&8&m+-----------------------***-----------------------+");
+        list.add(LIST_MEMBERS, String.valueOf(members.size()), StringUtils.join(members, ", "))
+                .add(LIST_FOOTER)
+                .send(player);
     }
 
     /**
@@ -437,13 +573,13 @@ public class PartyCMD extends Command implements TabExecutor {
     private void promoteCMD(ProxiedPlayer player, String[] args) {
         // Makes sure the player is in a party.
         if(plugin.partyManager().getParty(player) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+            ERROR_NOT_IN_PARTY.send(player);
             return;
         }
 
         // Makes sure the player is using the command correctly.
         if(args.length == 1) {
-            ChatUtils.chat(player, "<red><bold>Usage</bold> <dark_gray>» <red>/party promote [player]");
+            USAGE_PROMOTE.send(player);
             return;
         }
 
@@ -452,7 +588,7 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure they have permission.
         if(party.getRank(player) != PartyRank.LEADER) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>Only the party leader can promote members!");
+            ERROR_ONLY_LEADER_PROMOTE.send(player);
             return;
         }
 
@@ -460,26 +596,32 @@ public class PartyCMD extends Command implements TabExecutor {
         ProxiedPlayer target = plugin.getProxy().getPlayer(args[1]);
 
         // Makes sure the target is in the party.
-        if(target == null || !party.getMembers().contains(target)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>That player is not in your party!");
+        if(target == null || party.getRank(target) == null) {
+            ERROR_NOT_IN_YOUR_PARTY.send(player);
             return;
         }
 
         // Makes sure the player isn't trying to promote themselves.
         if(target.equals(player)) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are already the party leader!");
+            ERROR_ALREADY_LEADER.send(player);
             return;
         }
 
         // Promotes the player.
         if(party.getRank(target) == PartyRank.MEMBER) {
-            party.setRank(target, PartyRank.MODERATOR);
-            party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + target.getName() + " &ahas been promoted to moderator.");
+            party.setRank(target, PartyRank.MODERATOR).thenAccept(promoted -> {
+                if(promoted) {
+                    party.sendMessage(PROMOTED_MODERATOR.render(target.getName()));
+                }
+            });
         }
         else {
-            party.setRank(player, PartyRank.MODERATOR);
-            party.setRank(target, PartyRank.LEADER);
-            party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + target.getName() + " &ahas been promoted to party leader.");
+            // Also demotes the current leader to moderator.
+            party.setRank(target, PartyRank.LEADER).thenAccept(promoted -> {
+                if(promoted) {
+                    party.sendMessage(PROMOTED_LEADER.render(target.getName()));
+                }
+            });
         }
     }
 
@@ -490,7 +632,7 @@ public class PartyCMD extends Command implements TabExecutor {
     private void summonCMD(ProxiedPlayer player) {
         // Makes sure the player is in a party.
         if(plugin.partyManager().getParty(player) == null) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>You are not in a party! /party create.");
+            ERROR_NOT_IN_PARTY.send(player);
             return;
         }
 
@@ -499,18 +641,67 @@ public class PartyCMD extends Command implements TabExecutor {
 
         // Makes sure they have permission.
         if(party.getRank(player) != PartyRank.LEADER) {
-            ChatUtils.chat(player, "<red><bold>Error</bold> <dark_gray>» <red>Only the party leader can summon players!");
+            ERROR_ONLY_LEADER_SUMMON.send(player);
             return;
         }
 
-        party.sendMessage("<green><bold>Party</bold> <dark_gray>» <green>You have been summoned to <white>" + player.getName() + "<green>'s server.");
-        for(ProxiedPlayer member : party.getMembers()) {
-            if(member.equals(player)) {
-                continue;
-            }
+        // The leader has no server to summon to while still connecting.
+        if(player.getServer() == null) {
+            return;
+        }
+
+        // Members are connected in waves. Each one is told once they arrive, and the leader gets a summary once they all finished.
+        SUMMONING.send(player);
+        plugin.summonManager().summon(party, player);
+    }
+
+    /**
+     * Runs the /party debug command.
+     * Only available to admins, since it shows information about every party.
+     * @param player Player using the command.
+     * @param args Command arguments.
+     */
+    private void debugCMD(ProxiedPlayer player, String[] args) {
+        // Makes sure the player is an admin.
+        if(!player.hasPermission(ADMIN_PERMISSION)) {
+            ERROR_NO_PERMISSION.send(player);
+            return;
+        }
+
+        // Makes sure the player is using the command correctly.
+        if(args.length != 2 || !args[1].equalsIgnoreCase("stats")) {
+            USAGE_DEBUG.send(player);
+            return;
+        }
+
+        ChatBlock block = new ChatBlock()
+                .add(DIVIDER)
+                .addCentered("&a&lParty Stats");
+
+        for(PartyMetrics.Stat stat : plugin.partyMetrics().getStats()) {
+            block.add(DEBUG_STAT, stat.label(), stat.value());
+        }
+
+        block.add(DIVIDER).send(player);
+    }
+
+    /**
+     * Gets the names of all online players in a collection of uuids.
+     * @param uuids UUIDs of the players.
+     * @return Names of the players who are online.
+     */
+    private List<String> getOnlineNames(Collection<UUID> uuids) {
+        List<String> names = new ArrayList<>(uuids.size());
 
-            member.connect(player.getServer().getInfo());
+        for(UUID uuid : uuids) {
+            ProxiedPlayer member = plugin.getProxy().getPlayer(uuid);
+
+            if(member != null) {
+                names.add(member.getName());
+            }
         }
+
+        return names;
     }
 
     @Override
@@ -520,19 +711,101 @@ public class PartyCMD extends Command implements TabExecutor {
           return null;
         }
 
+        // "/party <player>" invites the player, so names are suggested along with the subcommands.
         if(args.length == 1) {
             List<String> suggestions = new ArrayList<>();
 
-            for(ProxiedPlayer serverPlayer : player.getServer().getInfo().getPlayers()) {
-                if(serverPlayer.getName().startsWith(args[0])) {
-                    suggestions.add(serverPlayer.getName());
+            boolean admin = player.hasPermission(ADMIN_PERMISSION);
+
+            for(String subCommand : SUB_COMMANDS) {
+                // Only admins can use /party debug, so nobody else is shown it.
+                if(!admin && subCommand.equals("debug")) {
+                    continue;
+                }
+
+                if(suggestions.size() < maxSuggestions && startsWithIgnoreCase(subCommand, args[0])) {
+                    suggestions.add(subCommand);
                 }
             }
 
+            suggestions.addAll(plugin.nameIndex().complete(args[0], maxSuggestions - suggestions.size()));
             return suggestions;
         }
 
+        if(args.length == 2) {
+            return switch (args[0].toLowerCase()) {
+                case "invite", "i" -> plugin.nameIndex().complete(args[1], maxSuggestions);
+                case "kick", "promote", "p" -> getRosterSuggestions(player, args[1]);
+                case "accept", "a", "decline", "d" -> getInviteSuggestions(player, args[1]);
+                case "debug" -> player.hasPermission(ADMIN_PERMISSION) && startsWithIgnoreCase("stats", args[1]) ? List.of("stats") : Collections.emptyList();
+                default -> Collections.emptyList();
+            };
+        }
 
         return Collections.emptyList();
     }
+
+    /**
+     * Gets the other online members of a player's party whose names start with a prefix.
+     * @param player Player who is tab completing.
+     * @param prefix What the player has typed so far.
+     * @return Matching member names.
+     */
+    private List<String> getRosterSuggestions(ProxiedPlayer player, String prefix) {
+        Party party = plugin.partyManager().getParty(player);
+        if(party == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> suggestions = new ArrayList<>();
+        for(ProxiedPlayer member : party.getMembers()) {
+            if(suggestions.size() >= maxSuggestions) {
+                break;
+            }
+
+            if(member != player && startsWithIgnoreCase(member.getName(), prefix)) {
+                suggestions.add(member.getName());
+            }
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Gets the leaders of the parties a player has been invited to whose names start with a prefix.
+     * @param player Player who is tab completing.
+     * @param prefix What the player has typed so far.
+     * @return Matching leader names.
+     */
+    private List<String> getInviteSuggestions(ProxiedPlayer player, String prefix) {
+        List<String> suggestions = new ArrayList<>();
+
+        for(UUID partyUUID : plugin.inviteManager().getInvites(player.getUniqueId())) {
+            if(suggestions.size() >= maxSuggestions) {
+                break;
+            }
+
+            Party party = plugin.partyManager().getParty(partyUUID);
+            if(party == null) {
+                continue;
+            }
+
+            ProxiedPlayer leader = party.getLeader();
+            if(leader != null && startsWithIgnoreCase(leader.getName(), prefix)) {
+                suggestions.add(leader.getName());
+            }
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Checks if a String starts with a prefix, ignoring case.
+     * @param value String to check.
+     * @param prefix Prefix to look for.
+     * @return Whether the String starts with the prefix.
+     */
+    private static boolean startsWithIgnoreCase(String value, String prefix) {
+        return value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
 }
\ No newline at end of file
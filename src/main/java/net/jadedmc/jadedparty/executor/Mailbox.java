@@ -0,0 +1,115 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.executor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks one at a time, in the order they were submitted, on top of a shared executor.
+ * A mailbox never holds a thread while it is empty, so there can be one for every party.
+ */
+public class Mailbox implements Executor {
+    // Tasks run before giving the thread back, so one busy mailbox can't starve the others.
+    private static final int BATCH_SIZE = 64;
+
+    private final Executor executor;
+    private final Runnable onIdle;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Creates a mailbox.
+     * @param executor Executor the tasks run on.
+     * @param onIdle Runs every time the mailbox runs out of tasks. May be null.
+     */
+    public Mailbox(Executor executor, Runnable onIdle) {
+        this.executor = executor;
+        this.onIdle = onIdle;
+    }
+
+    /**
+     * Adds a task to the mailbox.
+     * It runs after every task that was added before it.
+     * @param task Task to run.
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Get if the mailbox has no tasks waiting or running.
+     * @return Whether the mailbox is idle.
+     */
+    public boolean isIdle() {
+        return !scheduled.get() && tasks.isEmpty();
+    }
+
+    /**
+     * Submits the mailbox to the executor, unless it is already waiting or running.
+     */
+    private void schedule() {
+        if(scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            }
+            catch (RejectedExecutionException exception) {
+                scheduled.set(false);
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Runs the waiting tasks, then reschedules the mailbox if more tasks were added in the meantime.
+     */
+    private void drain() {
+        try {
+            for(int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = tasks.poll();
+                if(task == null) {
+                    break;
+                }
+
+                task.run();
+            }
+        }
+        finally {
+            scheduled.set(false);
+
+            if(!tasks.isEmpty()) {
+                schedule();
+            }
+            else if(onIdle != null) {
+                onIdle.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.executor;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.party.Party;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Runs party commands and listener work away from the Netty I/O threads.
+ * Uses virtual threads when the proxy runs on Java 21 or newer, and a fixed size thread pool otherwise.
+ * Work is grouped by key, usually a party, and work for the same key always runs in order.
+ */
+public class PartyExecutor {
+    private final JadedPartyPlugin plugin;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Map<Object, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final LongAdder tasksSubmitted = new LongAdder();
+    private final LongAdder tasksCompleted = new LongAdder();
+    private final LongAdder tasksFailed = new LongAdder();
+    private final LongAdder queueDepth = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates the executor.
+     * @param plugin Instance of the plugin.
+     * @param fallbackThreads Number of threads to use when virtual threads are not available.
+     */
+    public PartyExecutor(JadedPartyPlugin plugin, int fallbackThreads) {
+        this.plugin = plugin;
+
+        ExecutorService virtualExecutor = createVirtualExecutor();
+        this.virtualThreads = virtualExecutor != null;
+        this.executor = virtualThreads ? virtualExecutor : createFallbackExecutor(Math.max(1, fallbackThreads));
+    }
+
+    /**
+     * Runs work for a player, in order with all other work for the player's party.
+     * Players who are not in a party get their own queue.
+     * @param player Player the work is for.
+     * @param task Work to run.
+     */
+    public void execute(ProxiedPlayer player, Runnable task) {
+        Party party = plugin.partyManager().getParty(player);
+        execute(party == null ? player.getUniqueId() : party.getUUID(), task);
+    }
+
+    /**
+     * Runs work after all work that was already submitted with the same key.
+     * @param key Key to order the work by, like a party's uuid.
+     * @param task Work to run.
+     */
+    public void execute(Object key, Runnable task) {
+        Runnable measured = measure(task);
+
+        // Enqueued inside compute, so an idle mailbox can't be removed while a task is being added to it.
+        mailboxes.compute(key, (k, mailbox) -> {
+            if(mailbox == null) {
+                mailbox = new Mailbox(executor, () -> mailboxes.computeIfPresent(k, (k2, idle) -> idle.isIdle() ? null : idle));
+            }
+
+            mailbox.execute(measured);
+            return mailbox;
+        });
+    }
+
+    /**
+     * Creates a mailbox, which runs its tasks one at a time and in order on this executor.
+     * Used by parties, so every change to a party runs in order without locks.
+     * @return The mailbox.
+     */
+    public Executor newMailbox() {
+        Mailbox mailbox = new Mailbox(executor, null);
+        return task -> mailbox.execute(measure(task));
+    }
+
+    /**
+     * Stops accepting work and waits for the work that was already submitted.
+     * @param timeout How long to wait.
+     * @param unit Unit of the timeout.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+
+        try {
+            if(!executor.awaitTermination(timeout, unit)) {
+                plugin.getLogger().warning("Party tasks were still running on shutdown.");
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get if party work runs on virtual threads.
+     * @return Whether virtual threads are used.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Get the number of tasks waiting to run.
+     * @return Number of queued tasks.
+     */
+    public long getQueueDepth() {
+        return queueDepth.sum();
+    }
+
+    /**
+     * Get the number of tasks that were submitted.
+     * @return Number of submitted tasks.
+     */
+    public long getTasksSubmitted() {
+        return tasksSubmitted.sum();
+    }
+
+    /**
+     * Get the number of tasks that finished, including the ones that failed.
+     * @return Number of completed tasks.
+     */
+    public long getTasksCompleted() {
+        return tasksCompleted.sum();
+    }
+
+    /**
+     * Get the number of tasks that threw an exception.
+     * @return Number of failed tasks.
+     */
+    public long getTasksFailed() {
+        return tasksFailed.sum();
+    }
+
+    /**
+     * Get the average time tasks spent waiting before they started.
+     * @return Average queue latency, in nanoseconds.
+     */
+    public long getAverageWaitNanos() {
+        long completed = getTasksCompleted();
+        return completed == 0 ? 0 : totalWaitNanos.sum() / completed;
+    }
+
+    /**
+     * Get the longest time a task spent waiting before it started.
+     * @return Maximum queue latency, in nanoseconds.
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * Wraps a task so its queue time is recorded, and so an exception can't stop the tasks after it.
+     * @param task Task to wrap.
+     * @return Wrapped task.
+     */
+    private Runnable measure(Runnable task) {
+        long queuedAt = System.nanoTime();
+        tasksSubmitted.increment();
+        queueDepth.increment();
+
+        return () -> {
+            long wait = System.nanoTime() - queuedAt;
+            queueDepth.decrement();
+            totalWaitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+            try {
+                task.run();
+            }
+            catch (Throwable throwable) {
+                tasksFailed.increment();
+                plugin.getLogger().log(Level.SEVERE, "Error while running a party task", throwable);
+            }
+            finally {
+                tasksCompleted.increment();
+            }
+        };
+    }
+
+    /**
+     * Creates a virtual thread per task executor.
+     * Looked up with reflection, since the plugin is compiled for Java 17.
+     * @return The executor, or null if the JVM does not support virtual threads.
+     */
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a fixed size thread pool, for JVMs without virtual threads.
+     * The queue is unbounded, since it only ever holds one task per mailbox that has work waiting.
+     * Submitting never runs work on the calling thread, which is often a Netty I/O thread.
+     * Once shut down, new work is rejected instead of silently dropped, so callers waiting on it can tell.
+     * @param threads Number of threads.
+     * @return The executor.
+     */
+    private static ExecutorService createFallbackExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "JadedParty Worker #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
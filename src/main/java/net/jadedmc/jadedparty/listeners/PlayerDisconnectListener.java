@@ -26,6 +26,8 @@ package net.jadedmc.jadedparty.listeners;
 
 import net.jadedmc.jadedparty.JadedPartyPlugin;
 import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.party.ReconnectManager;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.event.PlayerDisconnectEvent;
 import net.md_5.bungee.api.plugin.Listener;
@@ -36,6 +38,8 @@ import net.md_5.bungee.event.EventHandler;
  * We use this to announce when a staff member leaves to other staff members.
  */
 public class PlayerDisconnectListener implements Listener {
+    private static final MessageTemplate DISCONNECTED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &adisconnected.", "player");
+    private static final MessageTemplate DISCONNECTED_GRACE = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &adisconnected. They have <seconds> seconds to reconnect.", "player", "seconds");
     private final JadedPartyPlugin plugin;
 
     /**
@@ -54,10 +58,30 @@ public class PlayerDisconnectListener implements Listener {
     @EventHandler
     public void onDisconnect(PlayerDisconnectEvent event) {
         ProxiedPlayer player = event.getPlayer();
-        Party party = plugin.partyManager().getParty(player);
-        if(party != null) {
-            party.removePlayer(player);
-            party.sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + player.getName() + " &adisconnected.");
-        }
+
+        plugin.nameIndex().remove(player);
+
+        plugin.partyExecutor().execute(player, () -> {
+            // Invites to offline players can never be accepted, so they are dropped right away.
+            plugin.inviteManager().clearInvites(player.getUniqueId());
+
+            Party party = plugin.partyManager().getParty(player);
+            if(party == null) {
+                return;
+            }
+
+            // Keeps the player in the party for a while, so a quick reconnect doesn't disband it.
+            // They are marked offline before the member list is rebuilt, so the list leaves them out.
+            ReconnectManager reconnectManager = plugin.reconnectManager();
+            if(reconnectManager.isEnabled()) {
+                reconnectManager.markOffline(party, player.getUniqueId(), player.getName());
+                party.invalidateMembers();
+                party.sendMessage(DISCONNECTED_GRACE.render(player.getName(), String.valueOf(reconnectManager.getGraceSeconds())));
+                return;
+            }
+
+            party.invalidateMembers();
+            party.removePlayer(player).thenRun(() -> party.sendMessage(DISCONNECTED.render(player.getName())));
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.listeners;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.sync.PartyFrameReader;
+import net.jadedmc.jadedparty.sync.PartyMessageEncoder;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.event.PluginMessageEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+import java.util.UUID;
+
+/**
+ * This listens to the PluginMessageEvent event, which is called every time a plugin message passes through the proxy.
+ * We use this to answer backend servers that need a full snapshot of a party.
+ */
+public class PluginMessageListener implements Listener {
+    private final JadedPartyPlugin plugin;
+
+    /**
+     * To be able to access the configuration files, we need to pass an instance of the plugin to our listener.
+     * This is known as Dependency Injection.
+     * @param plugin Instance of the plugin.
+     */
+    public PluginMessageListener(JadedPartyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs when the event is called.
+     * @param event PluginMessageEvent.
+     */
+    @EventHandler
+    public void onPluginMessage(PluginMessageEvent event) {
+        if(!event.getTag().equals(PartyMessageEncoder.CHANNEL)) {
+            return;
+        }
+
+        // Party messages are only meant for the proxy, so they are never forwarded to players.
+        event.setCancelled(true);
+
+        // Only backend servers can request a resync.
+        if(!(event.getSender() instanceof Server server)) {
+            return;
+        }
+
+        byte[] frame = event.getData();
+        if(PartyFrameReader.getOpcode(frame) != PartyMessageEncoder.OPCODE_RESYNC || frame.length < 18) {
+            return;
+        }
+
+        UUID partyUUID = PartyFrameReader.readPartyUUID(frame);
+
+        plugin.partyExecutor().execute(partyUUID, () -> {
+            Party party = plugin.partyManager().getParty(partyUUID);
+
+            // The party no longer exists, so the server can forget about it.
+            if(party == null) {
+                plugin.sendCustomData(server.getInfo(), plugin.messageEncoder().encodeDisband(partyUUID));
+                return;
+            }
+
+            party.resync(server.getInfo());
+        });
+    }
+}
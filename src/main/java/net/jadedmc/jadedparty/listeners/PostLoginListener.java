@@ -0,0 +1,79 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.listeners;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+/**
+ * This listens to the PostLoginEvent event, which is called every time a player joins the server.
+ * We use this to index the player's name for tab completion, refresh the cached online members of their party,
+ * and end their reconnect grace period.
+ */
+public class PostLoginListener implements Listener {
+    private static final MessageTemplate RECONNECTED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &areconnected.", "player");
+    private final JadedPartyPlugin plugin;
+
+    /**
+     * To be able to access the configuration files, we need to pass an instance of the plugin to our listener.
+     * This is known as Dependency Injection.
+     * @param plugin Instance of the plugin.
+     */
+    public PostLoginListener(JadedPartyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs when the event is called.
+     * @param event PostLoginEvent.
+     */
+    @EventHandler
+    public void onLogin(PostLoginEvent event) {
+        ProxiedPlayer player = event.getPlayer();
+        plugin.nameIndex().add(player);
+
+        plugin.partyExecutor().execute(player, () -> {
+            Party party = plugin.partyManager().getParty(player);
+            if(party == null) {
+                return;
+            }
+
+            // Members who come back within the grace period keep their place. Their new server gets
+            // the party in a single sync once they connect to it.
+            // They are marked online before the member list is rebuilt, so the list includes them again.
+            boolean reconnected = plugin.reconnectManager().markOnline(player);
+            party.invalidateMembers();
+
+            if(reconnected) {
+                party.sendMessage(RECONNECTED.render(player.getName()), player);
+            }
+        });
+    }
+}
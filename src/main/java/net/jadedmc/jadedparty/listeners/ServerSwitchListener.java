@@ -42,11 +42,14 @@ public class ServerSwitchListener implements Listener {
     public void onSwitch(ServerSwitchEvent event) {
         ProxiedPlayer player = event.getPlayer();
 
-        Party party = plugin.partyManager().getParty(player);
-        if(party == null) {
-            return;
-        }
+        // A leader who moves away from the summon's server cancels the rest of the summon.
+        plugin.summonManager().onLeaderSwitch(player);
 
-        party.syncData(player);
+        plugin.partyExecutor().execute(player, () -> {
+            Party party = plugin.partyManager().getParty(player);
+            if(party != null) {
+                party.syncData(player);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long something took, in buckets that double in size.
+ * Bucket n holds values from 2^(n-1) up to 2^n, so percentiles are accurate to within a factor of two
+ * while recording is a single addition that never allocates or locks.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for(int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value.
+     * @param nanos Time taken, in nanoseconds.
+     */
+    public void record(long nanos) {
+        if(nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets[64 - Long.numberOfLeadingZeros(nanos)].increment();
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Get the number of recorded values.
+     * @return Number of values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the average of the recorded values.
+     * @return Average, in nanoseconds.
+     */
+    public long getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : total.sum() / values;
+    }
+
+    /**
+     * Get the largest recorded value.
+     * @return Largest value, in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get a percentile of the recorded values.
+     * Returns the upper bound of the bucket the percentile falls in, capped at the largest recorded value.
+     * @param percentile Percentile to get, from 0 to 100.
+     * @return Value at the percentile, in nanoseconds.
+     */
+    public long getPercentile(double percentile) {
+        long values = count.sum();
+        if(values == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(values * percentile / 100));
+        long seen = 0;
+
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+
+            if(seen >= target) {
+                long upperBound = i == 0 ? 0 : (1L << i) - 1;
+                return Math.min(upperBound, getMax());
+            }
+        }
+
+        return getMax();
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.metrics;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.persistence.PartyJournal;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Collects the plugin's metrics in one place.
+ * Counters and histograms are recorded on hot paths, so recording never allocates or locks.
+ * Everything else, like the number of parties, is read from the managers when the metrics are viewed.
+ * The invite wheel, grace period expiries and summon waves run on the proxy's scheduler instead of the party executor,
+ * so they record their own run times. Work they hand to a party's mailbox is counted by the executor.
+ * Runs once per second to update the per second rates.
+ */
+public class PartyMetrics implements PartyMetricsMBean, Runnable {
+    private static final String OBJECT_NAME = "net.jadedmc.jadedparty:type=PartyMetrics";
+    private static final String OTHER_COMMAND = "other";
+
+    // Scheduled tasks that record their run times.
+    public static final String TASK_INVITE_WHEEL = "invite wheel";
+    public static final String TASK_GRACE_EXPIRY = "grace expiry";
+    public static final String TASK_SUMMON_WAVE = "summon wave";
+
+    // Party sizes are grouped in buckets that double in size: 1, 2, 3-4, 5-8, 9-16, 17-32 and 33+.
+    private static final String[] SIZE_LABELS = {"1", "2", "3-4", "5-8", "9-16", "17-32", "33+"};
+
+    private final JadedPartyPlugin plugin;
+    private final Map<String, LatencyHistogram> commands = new LinkedHashMap<>();
+    private final Map<String, LatencyHistogram> tasks = new LinkedHashMap<>();
+    private final LongAdder partiesCreated = new LongAdder();
+    private final LongAdder partiesDisbanded = new LongAdder();
+    private final LongAdder syncMessages = new LongAdder();
+    private final LongAdder syncBytes = new LongAdder();
+    private final LongAdder commandCount = new LongAdder();
+
+    // Per second rates, updated by run().
+    private long lastSampleNanos = System.nanoTime();
+    private long lastSyncMessages = 0;
+    private long lastSyncBytes = 0;
+    private long lastCommands = 0;
+    private volatile double syncMessagesPerSecond = 0;
+    private volatile double syncBytesPerSecond = 0;
+    private volatile double commandsPerSecond = 0;
+
+    private ObjectName objectName;
+
+    /**
+     * Creates the metrics.
+     * @param plugin Instance of the plugin.
+     * @param subCommands Names of the subcommands to keep latency histograms for.
+     */
+    public PartyMetrics(JadedPartyPlugin plugin, String... subCommands) {
+        this.plugin = plugin;
+
+        // Created up front, so recording a command is only a map lookup.
+        for(String subCommand : subCommands) {
+            commands.put(subCommand, new LatencyHistogram());
+        }
+
+        commands.put(OTHER_COMMAND, new LatencyHistogram());
+
+        tasks.put(TASK_INVITE_WHEEL, new LatencyHistogram());
+        tasks.put(TASK_GRACE_EXPIRY, new LatencyHistogram());
+        tasks.put(TASK_SUMMON_WAVE, new LatencyHistogram());
+    }
+
+    /**
+     * Records a command that was run.
+     * @param subCommand Name of the subcommand.
+     * @param nanos Time from the command being sent to it finishing, in nanoseconds.
+     */
+    public void recordCommand(String subCommand, long nanos) {
+        LatencyHistogram histogram = commands.get(subCommand);
+        if(histogram == null) {
+            histogram = commands.get(OTHER_COMMAND);
+        }
+
+        histogram.record(nanos);
+        commandCount.increment();
+    }
+
+    /**
+     * Records a run of a scheduled task.
+     * @param task Name of the task, one of the TASK_ constants.
+     * @param nanos Time the run took, in nanoseconds.
+     */
+    public void recordTask(String task, long nanos) {
+        tasks.get(task).record(nanos);
+    }
+
+    /**
+     * Records a party message sent to a backend server.
+     * @param bytes Size of the message.
+     */
+    public void recordSync(int bytes) {
+        syncMessages.increment();
+        syncBytes.add(bytes);
+    }
+
+    /**
+     * Records a party being created.
+     */
+    public void recordPartyCreated() {
+        partiesCreated.increment();
+    }
+
+    /**
+     * Records a party being disbanded.
+     */
+    public void recordPartyDisbanded() {
+        partiesDisbanded.increment();
+    }
+
+    /**
+     * Updates the per second rates.
+     */
+    @Override
+    public synchronized void run() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        if(seconds <= 0) {
+            return;
+        }
+
+        long messages = syncMessages.sum();
+        long bytes = syncBytes.sum();
+        long commandsRun = commandCount.sum();
+
+        syncMessagesPerSecond = (messages - lastSyncMessages) / seconds;
+        syncBytesPerSecond = (bytes - lastSyncBytes) / seconds;
+        commandsPerSecond = (commandsRun - lastCommands) / seconds;
+
+        lastSampleNanos = now;
+        lastSyncMessages = messages;
+        lastSyncBytes = bytes;
+        lastCommands = commandsRun;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, so they can be viewed with JMX tools.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            // A previous instance is left behind if the plugin was reloaded without being disabled.
+            if(server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(this, name);
+            objectName = name;
+        }
+        catch (JMException exception) {
+            plugin.getLogger().log(Level.WARNING, "Could not register the party metrics with JMX", exception);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server.
+     */
+    public void unregister() {
+        if(objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (JMException exception) {
+            plugin.getLogger().log(Level.WARNING, "Could not unregister the party metrics from JMX", exception);
+        }
+
+        objectName = null;
+    }
+
+    /**
+     * Get the latency histogram of a subcommand.
+     * @param subCommand Name of the subcommand.
+     * @return The histogram, or null if the subcommand is not tracked.
+     */
+    public LatencyHistogram getCommandLatency(String subCommand) {
+        return commands.get(subCommand);
+    }
+
+    /**
+     * Get the latency histogram of a scheduled task.
+     * @param task Name of the task.
+     * @return The histogram, or null if the task is not tracked.
+     */
+    public LatencyHistogram getTaskLatency(String task) {
+        return tasks.get(task);
+    }
+
+    /**
+     * Get every metric as a label and a formatted value, in the order they should be shown.
+     * @return List of metrics.
+     */
+    public List<Stat> getStats() {
+        List<Stat> stats = new ArrayList<>();
+
+        stats.add(new Stat("Parties", getParties() + " (" + getPartyMembers() + " members, largest " + getLargestParty() + ")"));
+        stats.add(new Stat("Party sizes", formatPartySizes()));
+        stats.add(new Stat("Created/disbanded", getPartiesCreated() + " / " + getPartiesDisbanded()));
+        stats.add(new Stat("Pending invites", String.valueOf(getPendingInvites())));
+        stats.add(new Stat("Offline members", String.valueOf(getOfflineMembers())));
+        stats.add(new Stat("Active summons", String.valueOf(getActiveSummons())));
+        stats.add(new Stat("Executor", getExecutorQueueDepth() + " queued, " + getExecutorTasksCompleted() + " done, "
+                + getExecutorTasksFailed() + " failed, avg wait " + formatNanos(getExecutorAverageWaitNanos())));
+        stats.add(new Stat("Syncs", String.format(Locale.ROOT, "%.1f/s, %.1f KB/s (%d sent, %d pending)",
+                getSyncMessagesPerSecond(), getSyncBytesPerSecond() / 1024, getSyncMessages(), getPendingSyncs())));
+        stats.add(new Stat("Commands", String.format(Locale.ROOT, "%.1f/s (%d run)", getCommandsPerSecond(), getCommands())));
+
+        for(Map.Entry<String, LatencyHistogram> entry : commands.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+
+            if(histogram.getCount() > 0) {
+                stats.add(new Stat("  /party " + entry.getKey(), formatHistogram(histogram)));
+            }
+        }
+
+        stats.add(new Stat("Scheduled tasks", String.valueOf(getTaskRuns())));
+        for(Map.Entry<String, LatencyHistogram> entry : tasks.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+
+            if(histogram.getCount() > 0) {
+                stats.add(new Stat("  " + entry.getKey(), formatHistogram(histogram)));
+            }
+        }
+
+        PartyJournal journal = plugin.partyJournal();
+        if(journal != null) {
+            stats.add(new Stat("Journal", journal.getRecordsWritten() + " records, " + journal.getBytesWritten() / 1024 + " KB, "
+                    + journal.getCompactions() + " compactions, restored in " + formatNanos(journal.getLastRestoreNanos())));
+        }
+
+        return stats;
+    }
+
+    @Override
+    public int getParties() {
+        return plugin.partyManager().getParties().size();
+    }
+
+    @Override
+    public int getPartyMembers() {
+        int members = 0;
+
+        for(Party party : plugin.partyManager().getParties()) {
+            members += party.getRanks().size();
+        }
+
+        return members;
+    }
+
+    @Override
+    public int getLargestParty() {
+        int largest = 0;
+
+        for(Party party : plugin.partyManager().getParties()) {
+            largest = Math.max(largest, party.getRanks().size());
+        }
+
+        return largest;
+    }
+
+    @Override
+    public long[] getPartySizeDistribution() {
+        long[] sizes = new long[SIZE_LABELS.length];
+
+        for(Party party : plugin.partyManager().getParties()) {
+            int size = Math.max(1, party.getRanks().size());
+            int bucket = 32 - Integer.numberOfLeadingZeros(size - 1);
+            sizes[Math.min(bucket, sizes.length - 1)]++;
+        }
+
+        return sizes;
+    }
+
+    @Override
+    public long getPartiesCreated() {
+        return partiesCreated.sum();
+    }
+
+    @Override
+    public long getPartiesDisbanded() {
+        return partiesDisbanded.sum();
+    }
+
+    @Override
+    public int getPendingInvites() {
+        return plugin.inviteManager().getPendingInvites();
+    }
+
+    @Override
+    public int getOfflineMembers() {
+        return plugin.reconnectManager().getOfflineMembers();
+    }
+
+    @Override
+    public int getActiveSummons() {
+        return plugin.summonManager().getActiveSummons();
+    }
+
+    @Override
+    public long getExecutorQueueDepth() {
+        return plugin.partyExecutor().getQueueDepth();
+    }
+
+    @Override
+    public long getExecutorTasksCompleted() {
+        return plugin.partyExecutor().getTasksCompleted();
+    }
+
+    @Override
+    public long getExecutorTasksFailed() {
+        return plugin.partyExecutor().getTasksFailed();
+    }
+
+    @Override
+    public long getExecutorAverageWaitNanos() {
+        return plugin.partyExecutor().getAverageWaitNanos();
+    }
+
+    @Override
+    public int getPendingSyncs() {
+        return plugin.syncTask().getPendingSyncs();
+    }
+
+    @Override
+    public long getSyncMessages() {
+        return syncMessages.sum();
+    }
+
+    @Override
+    public long getSyncBytes() {
+        return syncBytes.sum();
+    }
+
+    @Override
+    public double getSyncMessagesPerSecond() {
+        return syncMessagesPerSecond;
+    }
+
+    @Override
+    public double getSyncBytesPerSecond() {
+        return syncBytesPerSecond;
+    }
+
+    @Override
+    public long getCommands() {
+        return commandCount.sum();
+    }
+
+    @Override
+    public double getCommandsPerSecond() {
+        return commandsPerSecond;
+    }
+
+    @Override
+    public long getTaskRuns() {
+        long runs = 0;
+
+        for(LatencyHistogram histogram : tasks.values()) {
+            runs += histogram.getCount();
+        }
+
+        return runs;
+    }
+
+    @Override
+    public long getJournalPendingRecords() {
+        PartyJournal journal = plugin.partyJournal();
+        return journal == null ? 0 : journal.getPendingRecords();
+    }
+
+    @Override
+    public long getJournalBytesWritten() {
+        PartyJournal journal = plugin.partyJournal();
+        return journal == null ? 0 : journal.getBytesWritten();
+    }
+
+    @Override
+    public String[] getCommandLatencies() {
+        List<String> latencies = new ArrayList<>();
+
+        for(Map.Entry<String, LatencyHistogram> entry : commands.entrySet()) {
+            latencies.add(entry.getKey() + ": " + formatHistogram(entry.getValue()));
+        }
+
+        return latencies.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getTaskLatencies() {
+        List<String> latencies = new ArrayList<>();
+
+        for(Map.Entry<String, LatencyHistogram> entry : tasks.entrySet()) {
+            latencies.add(entry.getKey() + ": " + formatHistogram(entry.getValue()));
+        }
+
+        return latencies.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getReport() {
+        List<String> report = new ArrayList<>();
+
+        for(Stat stat : getStats()) {
+            report.add(stat.label().trim() + ": " + stat.value());
+        }
+
+        return report.toArray(new String[0]);
+    }
+
+    /**
+     * Formats the party size distribution.
+     * @return Number of parties of each size.
+     */
+    private String formatPartySizes() {
+        long[] sizes = getPartySizeDistribution();
+        StringJoiner joiner = new StringJoiner(", ");
+
+        for(int i = 0; i < sizes.length; i++) {
+            if(sizes[i] > 0) {
+                joiner.add(SIZE_LABELS[i] + ": " + sizes[i]);
+            }
+        }
+
+        return joiner.length() == 0 ? "none" : joiner.toString();
+    }
+
+    /**
+     * Formats the count and percentiles of a histogram.
+     * @param histogram Histogram to format.
+     * @return Formatted histogram.
+     */
+    private static String formatHistogram(LatencyHistogram histogram) {
+        return histogram.getCount() + " runs, p50 " + formatNanos(histogram.getPercentile(50))
+                + ", p99 " + formatNanos(histogram.getPercentile(99)) + ", max " + formatNanos(histogram.getMax());
+    }
+
+    /**
+     * Formats a duration with a unit that keeps it short.
+     * @param nanos Duration, in nanoseconds.
+     * @return Formatted duration.
+     */
+    private static String formatNanos(long nanos) {
+        if(nanos >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+        }
+
+        return (nanos / 1_000) + "µs";
+    }
+
+    /**
+     * A metric, ready to be shown.
+     * @param label Name of the metric.
+     * @param value Formatted value.
+     */
+    public record Stat(String label, String value) {}
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.metrics;
+
+/**
+ * Attributes of the party metrics shown over JMX, under net.jadedmc.jadedparty:type=PartyMetrics.
+ */
+public interface PartyMetricsMBean {
+    int getParties();
+
+    int getPartyMembers();
+
+    int getLargestParty();
+
+    long[] getPartySizeDistribution();
+
+    long getPartiesCreated();
+
+    long getPartiesDisbanded();
+
+    int getPendingInvites();
+
+    int getOfflineMembers();
+
+    int getActiveSummons();
+
+    long getExecutorQueueDepth();
+
+    long getExecutorTasksCompleted();
+
+    long getExecutorTasksFailed();
+
+    long getExecutorAverageWaitNanos();
+
+    int getPendingSyncs();
+
+    long getSyncMessages();
+
+    long getSyncBytes();
+
+    double getSyncMessagesPerSecond();
+
+    double getSyncBytesPerSecond();
+
+    long getCommands();
+
+    double getCommandsPerSecond();
+
+    long getTaskRuns();
+
+    long getJournalPendingRecords();
+
+    long getJournalBytesWritten();
+
+    String[] getCommandLatencies();
+
+    String[] getTaskLatencies();
+
+    String[] getReport();
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.metrics.PartyMetrics;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
+import net.jadedmc.jadedparty.utils.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expires party invites using a hashed timer wheel.
+ * A single task ticks once per second and only looks at the invites in the current slot,
+ * so adding, cancelling and expiring an invite are all O(1) no matter how many are pending.
+ * Invites only store the party's uuid, so pending invites never keep a disbanded party in memory.
+ * Invites are also indexed by the invited player, so checking, listing and clearing a player's invites
+ * never has to look through every party.
+ */
+public class InviteManager implements Runnable {
+    private static final int WHEEL_SIZE = 64;
+    private static final MessageTemplate INVITE_EXPIRED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player>&a's invite has expired.", "player");
+    private static final MessageTemplate INVITES_EXPIRED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><players>&a's invites have expired.", "players");
+
+    private final JadedPartyPlugin plugin;
+    private final int expireTicks;
+    private final Map<InviteKey, Invite> invites = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> playerInvites = new ConcurrentHashMap<>();
+    private final List<Set<Invite>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private volatile long currentTick = 0;
+
+    /**
+     * Creates the invite manager.
+     * @param plugin Instance of the plugin.
+     * @param expireSeconds How long an invite lasts, in seconds.
+     */
+    public InviteManager(JadedPartyPlugin plugin, int expireSeconds) {
+        this.plugin = plugin;
+        this.expireTicks = Math.max(1, expireSeconds);
+
+        for(int slot = 0; slot < WHEEL_SIZE; slot++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Starts the expiry timer for an invite, replacing any existing timer for the same invite.
+     * @param partyUUID UUID of the party the player was invited to.
+     * @param invitee UUID of the invited player.
+     */
+    public void addInvite(UUID partyUUID, UUID invitee) {
+        InviteKey key = new InviteKey(partyUUID, invitee);
+        long deadline = currentTick + expireTicks;
+        Invite invite = new Invite(key, deadline, (int) (deadline % WHEEL_SIZE));
+
+        Invite previous = invites.put(key, invite);
+        if(previous != null) {
+            wheel.get(previous.slot()).remove(previous);
+        }
+
+        wheel.get(invite.slot()).add(invite);
+        indexInvite(partyUUID, invitee);
+    }
+
+    /**
+     * Cancels the expiry timer for an invite.
+     * Used when the invite is accepted, declined or the party is disbanded.
+     * @param partyUUID UUID of the party the player was invited to.
+     * @param invitee UUID of the invited player.
+     */
+    public void cancelInvite(UUID partyUUID, UUID invitee) {
+        Invite invite = invites.remove(new InviteKey(partyUUID, invitee));
+
+        if(invite != null) {
+            wheel.get(invite.slot()).remove(invite);
+        }
+
+        unindexInvite(partyUUID, invitee);
+    }
+
+    /**
+     * Removes every pending invite a player has, without announcing it.
+     * Used when the player disconnects.
+     * @param invitee UUID of the invited player.
+     */
+    public void clearInvites(UUID invitee) {
+        Set<UUID> partyUUIDs = playerInvites.remove(invitee);
+        if(partyUUIDs == null) {
+            return;
+        }
+
+        for(UUID partyUUID : partyUUIDs) {
+            cancelInvite(partyUUID, invitee);
+
+            Party party = plugin.partyManager().getParty(partyUUID);
+            if(party != null) {
+                party.run(() -> party.expireInvite(invitee));
+            }
+        }
+    }
+
+    /**
+     * Get the uuids of all parties a player has a pending invite to.
+     * @param invitee UUID of the invited player.
+     * @return Unmodifiable view of the party uuids.
+     */
+    public Set<UUID> getInvites(UUID invitee) {
+        Set<UUID> partyUUIDs = playerInvites.get(invitee);
+
+        if(partyUUIDs == null) {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(partyUUIDs);
+    }
+
+    /**
+     * Get if a player has a pending invite to a party.
+     * @param invitee UUID of the invited player.
+     * @param partyUUID UUID of the party.
+     * @return Whether the invite exists.
+     */
+    public boolean hasInvite(UUID invitee, UUID partyUUID) {
+        return invites.containsKey(new InviteKey(partyUUID, invitee));
+    }
+
+    /**
+     * Get the number of invites waiting to expire.
+     * @return Number of pending invites.
+     */
+    public int getPendingInvites() {
+        return invites.size();
+    }
+
+    /**
+     * Advances the wheel by one tick and expires every invite that is due.
+     * Each party is told about all of its expired invites in a single message.
+     */
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long tick = ++currentTick;
+        Set<Invite> slot = wheel.get((int) (tick % WHEEL_SIZE));
+
+        // Groups the expired invites by party.
+        Map<UUID, List<UUID>> expired = new HashMap<>();
+        for(Invite invite : slot) {
+            // Invites that last longer than one turn of the wheel stay until their deadline.
+            if(invite.deadline() > tick) {
+                continue;
+            }
+
+            slot.remove(invite);
+            if(invites.remove(invite.key(), invite)) {
+                unindexInvite(invite.key().party(), invite.key().invitee());
+                expired.computeIfAbsent(invite.key().party(), party -> new ArrayList<>()).add(invite.key().invitee());
+            }
+        }
+
+        for(Map.Entry<UUID, List<UUID>> entry : expired.entrySet()) {
+            Party party = plugin.partyManager().getParty(entry.getKey());
+            if(party == null) {
+                continue;
+            }
+
+            // Expired on the party's mailbox, so an invite accepted at the same time is either accepted or expired, never both.
+            List<UUID> invitees = entry.getValue();
+            party.run(() -> {
+                List<String> names = new ArrayList<>();
+                for(UUID invitee : invitees) {
+                    String name = party.expireInvite(invitee);
+
+                    if(name != null) {
+                        names.add(name);
+                    }
+                }
+
+                if(names.size() == 1) {
+                    party.sendMessage(INVITE_EXPIRED.render(names.get(0)));
+                }
+                else if(names.size() > 1) {
+                    party.sendMessage(INVITES_EXPIRED.render(StringUtils.join(names, ", ")));
+                }
+            });
+        }
+
+        plugin.partyMetrics().recordTask(PartyMetrics.TASK_INVITE_WHEEL, System.nanoTime() - start);
+    }
+
+    /**
+     * Adds an invite to the player index.
+     * @param partyUUID UUID of the party.
+     * @param invitee UUID of the invited player.
+     */
+    private void indexInvite(UUID partyUUID, UUID invitee) {
+        playerInvites.compute(invitee, (player, partyUUIDs) -> {
+            if(partyUUIDs == null) {
+                partyUUIDs = ConcurrentHashMap.newKeySet();
+            }
+
+            partyUUIDs.add(partyUUID);
+            return partyUUIDs;
+        });
+    }
+
+    /**
+     * Removes an invite from the player index, dropping the player's entry once they have no invites left.
+     * @param partyUUID UUID of the party.
+     * @param invitee UUID of the invited player.
+     */
+    private void unindexInvite(UUID partyUUID, UUID invitee) {
+        playerInvites.computeIfPresent(invitee, (player, partyUUIDs) -> {
+            partyUUIDs.remove(partyUUID);
+            return partyUUIDs.isEmpty() ? null : partyUUIDs;
+        });
+    }
+
+    /**
+     * Identifies an invite by the party and the invited player.
+     * @param party UUID of the party.
+     * @param invitee UUID of the invited player.
+     */
+    private record InviteKey(UUID party, UUID invitee) {}
+
+    /**
+     * A pending invite in the timer wheel.
+     * Compared by identity, so a replaced invite is never mistaken for its replacement.
+     * @param key Party and invited player.
+     * @param deadline Tick the invite expires on.
+     * @param slot Slot of the wheel the invite is stored in.
+     */
+    private record Invite(InviteKey key, long deadline, int slot) {
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
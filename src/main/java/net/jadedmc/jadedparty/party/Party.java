@@ -25,41 +25,150 @@
 package net.jadedmc.jadedparty.party;
 
 import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.persistence.PartyJournal;
+import net.jadedmc.jadedparty.sync.PartyDelta;
+import net.jadedmc.jadedparty.sync.PartyMessageEncoder;
 import net.jadedmc.jadedparty.utils.ChatUtils;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
 
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Represents a group of players playing together.
+ * Reads are lock-free. Every mutation and sync runs on the party's own mailbox, one at a time and in order,
+ * so no locks are needed and changes to different parties run in parallel.
+ * Mutations return a future that completes once the change has been made.
  */
 public class Party {
     private final JadedPartyPlugin plugin;
-    private final Map<UUID, PartyRank> members = new HashMap<>();
-    private final UUID uuid = UUID.randomUUID();
-    private final Map<UUID, String> invites = new HashMap<>();
+    private final Executor mailbox;
+    private final Map<UUID, PartyRank> members = new ConcurrentHashMap<>();
+    private final UUID uuid;
+    private final Map<UUID, String> invites = new ConcurrentHashMap<>();
+    private volatile boolean disbanded = false;
+
+    // Rank index, kept in sync with the members map so rank lookups never need a scan.
+    private final Map<PartyRank, Set<UUID>> ranks = new EnumMap<>(PartyRank.class);
+    private volatile UUID leader;
+
+    // Cached list of online members, rebuilt when the membership version changes.
+    private final AtomicInteger membersVersion = new AtomicInteger();
+    private volatile MemberSnapshot memberSnapshot = null;
+
+    // Sync state. The version goes up by one for every change made to the party.
+    // Only the version is read outside the mailbox.
+    private volatile long version = 0;
+    private final List<PartyDelta> pendingDeltas = new ArrayList<>();
+    private final Set<String> syncedServers = new HashSet<>();
+
+    // Whether the journal has a full snapshot of the party to apply changes to. Only used from the mailbox.
+    private boolean journalled = false;
 
     // Party Settings
-    private boolean publicParty;
+    private volatile boolean publicParty;
 
     public Party(JadedPartyPlugin plugin, ProxiedPlayer leader) {
         this.plugin = plugin;
+        this.mailbox = plugin.partyExecutor().newMailbox();
+        this.uuid = UUID.randomUUID();
+
+        for(PartyRank rank : PartyRank.values()) {
+            ranks.put(rank, ConcurrentHashMap.newKeySet());
+        }
+
+        this.leader = leader.getUniqueId();
         members.put(leader.getUniqueId(), PartyRank.LEADER);
+        ranks.get(PartyRank.LEADER).add(leader.getUniqueId());
 
         // Sets the default settings of the party.
         publicParty = false;
     }
 
     /**
-     * Add a player to the party.
+     * Restores a party from a snapshot, such as one saved before the proxy restarted.
+     * The members are not added to the player index, the party manager does that when registering the party.
+     * @param plugin Instance of the plugin.
+     * @param snapshot Saved state of the party.
+     */
+    public Party(JadedPartyPlugin plugin, PartySnapshot snapshot) {
+        this.plugin = plugin;
+        this.mailbox = plugin.partyExecutor().newMailbox();
+        this.uuid = snapshot.uuid();
+
+        for(PartyRank rank : PartyRank.values()) {
+            ranks.put(rank, ConcurrentHashMap.newKeySet());
+        }
+
+        this.leader = snapshot.leader();
+        this.version = snapshot.version();
+        this.publicParty = snapshot.publicParty();
+        this.journalled = true;
+
+        for(Map.Entry<UUID, PartyRank> member : snapshot.members().entrySet()) {
+            members.put(member.getKey(), member.getValue());
+            ranks.get(member.getValue()).add(member.getKey());
+        }
+    }
+
+    /**
+     * Add a player to the party, without needing an invite, such as when joining a public party.
+     * Fails if the party was disbanded or the player is already in another party.
+     * @param player Player to add.
+     * @return Future that completes with whether the player was added.
+     */
+    public CompletableFuture<Boolean> addPlayer(ProxiedPlayer player) {
+        return submit(() -> addPlayerNow(player));
+    }
+
+    /**
+     * Adds an invited player to the party.
+     * The invite is used up on the mailbox, so an invite that expired or was cancelled before this runs
+     * can no longer be accepted.
+     * @param player Player accepting the invite.
+     * @return Future that completes with whether the player was added.
+     */
+    public CompletableFuture<Boolean> acceptInvite(ProxiedPlayer player) {
+        return submit(() -> {
+            if(disbanded || invites.remove(player.getUniqueId()) == null) {
+                return false;
+            }
+
+            plugin.inviteManager().cancelInvite(uuid, player.getUniqueId());
+            return addPlayerNow(player);
+        });
+    }
+
+    /**
+     * Adds a player to the party from the mailbox.
      * @param player Player to add.
+     * @return Whether the player was added.
      */
-    public void addPlayer(ProxiedPlayer player) {
+    private boolean addPlayerNow(ProxiedPlayer player) {
+        // Members who join again would lose their rank, so they are turned away.
+        if(disbanded || members.containsKey(player.getUniqueId())) {
+            return false;
+        }
+
+        // Claims the player in the index first, so they can never end up in two parties.
+        if(!plugin.partyManager().indexPlayer(player.getUniqueId(), this)) {
+            return false;
+        }
+
         members.put(player.getUniqueId(), PartyRank.MEMBER);
-        invites.remove(player.getUniqueId());
+        ranks.get(PartyRank.MEMBER).add(player.getUniqueId());
+        removeInviteNow(player.getUniqueId());
+        invalidateMembers();
 
-        syncData();
+        recordDelta(PartyDelta.memberAdd(player.getUniqueId(), PartyRank.MEMBER));
+        return true;
     }
 
     /**
@@ -80,35 +189,83 @@ public class Party {
 
     /**
      * Gets the leader of the party.
+     * Returns null if the leader is not online.
      * @return Party leader.
      */
     public ProxiedPlayer getLeader() {
-        // Loops through all party members.
-        for(ProxiedPlayer player : getMembers()) {
-            // Checks if they are party leader.
-            if(getRank(player) == PartyRank.LEADER) {
-                return player;
-            }
-        }
+        return plugin.getProxy().getPlayer(leader);
+    }
 
-        // If no party leader found, returns null.
-        return null;
+    /**
+     * Gets the uuid of the party leader.
+     * Unlike getLeader(), this works when the leader is offline.
+     * @return UUID of the party leader.
+     */
+    public UUID getLeaderUUID() {
+        return leader;
     }
 
     /**
-     * Get all members in the party.
-     * @return List of all party members.
+     * Get all online members in the party, leaving out members who disconnected and are waiting to reconnect.
+     * The list is an immutable snapshot, shared between callers until the membership changes.
+     * @return List of all online party members.
      */
     public List<ProxiedPlayer> getMembers() {
-        List<ProxiedPlayer> partyMembers = new ArrayList<>();
+        int version = membersVersion.get();
+        MemberSnapshot snapshot = memberSnapshot;
 
-        members.keySet().forEach(uuid -> {
-            if(plugin.getProxy().getPlayer(uuid) != null) {
-                partyMembers.add(plugin.getProxy().getPlayer(uuid));
+        // Uses the cached snapshot if nothing changed since it was built.
+        if(snapshot != null && snapshot.version() == version) {
+            return snapshot.members();
+        }
+
+        // Members waiting to reconnect are left out, even while the proxy still returns the leaving player.
+        ReconnectManager reconnectManager = plugin.reconnectManager();
+        List<ProxiedPlayer> partyMembers = new ArrayList<>(members.size());
+        for(UUID memberUUID : members.keySet()) {
+            ProxiedPlayer member = plugin.getProxy().getPlayer(memberUUID);
+
+            if(member != null && !reconnectManager.isOffline(memberUUID)) {
+                partyMembers.add(member);
             }
-        });
+        }
+
+        snapshot = new MemberSnapshot(version, Collections.unmodifiableList(partyMembers));
+        memberSnapshot = snapshot;
+        return snapshot.members();
+    }
+
+    /**
+     * Invalidates the cached online member list.
+     * Called when the membership changes or a member connects or disconnects.
+     */
+    public void invalidateMembers() {
+        membersVersion.incrementAndGet();
+    }
+
+    /**
+     * Get the uuids of all members in the party, online or not.
+     * @return Unmodifiable view of all member uuids.
+     */
+    public Set<UUID> getMemberUUIDs() {
+        return Collections.unmodifiableSet(members.keySet());
+    }
+
+    /**
+     * Get the rank of every member in the party, online or not.
+     * @return Unmodifiable view of member uuids and their ranks.
+     */
+    public Map<UUID, PartyRank> getRanks() {
+        return Collections.unmodifiableMap(members);
+    }
 
-        return partyMembers;
+    /**
+     * Get the uuids of all members with a given rank, online or not.
+     * @param rank Rank to get the members of.
+     * @return Unmodifiable view of the member uuids with that rank.
+     */
+    public Set<UUID> getMemberUUIDs(PartyRank rank) {
+        return Collections.unmodifiableSet(ranks.get(rank));
     }
 
     /**
@@ -118,11 +275,17 @@ public class Party {
      * @return PartyRank of the player.
      */
     public PartyRank getRank(ProxiedPlayer player) {
-        if(members.containsKey(player.getUniqueId())) {
-            return members.get(player.getUniqueId());
-        }
+        return getRank(player.getUniqueId());
+    }
 
-        return null;
+    /**
+     * Get the rank of a player in the party, using their uuid.
+     * Returns null if they are not in the party.
+     * @param playerUUID UUID of the player to get rank of.
+     * @return PartyRank of the player.
+     */
+    public PartyRank getRank(UUID playerUUID) {
+        return members.get(playerUUID);
     }
 
     /**
@@ -137,18 +300,47 @@ public class Party {
     /**
      * Invites a player to the party.
      * @param player Player being invited to the party.
+     * @return Future that completes once the invite was added.
      */
-    public void invitePlayer(ProxiedPlayer player) {
-        invites.put(player.getUniqueId(), player.getName());
-
-        plugin.getProxy().getScheduler().schedule(plugin, () -> {
-            if(!invites.containsKey(player.getUniqueId())) {
+    public CompletableFuture<Void> invitePlayer(ProxiedPlayer player) {
+        return run(() -> {
+            if(disbanded) {
                 return;
             }
 
-            sendMessage("<green><bold>Party</bold> <dark_gray>» <white>" + invites.get(player.getUniqueId()) + "&a's invite has expired.");
-            invites.remove(player.getUniqueId());
-        }, 60, TimeUnit.SECONDS);
+            invites.put(player.getUniqueId(), player.getName());
+            plugin.inviteManager().addInvite(uuid, player.getUniqueId());
+        });
+    }
+
+    /**
+     * Removes an invite that has expired.
+     * Called by the invite manager, from the party's mailbox.
+     * @param invitee UUID of the invited player.
+     * @return Name of the invited player, or null if the invite no longer exists.
+     */
+    String expireInvite(UUID invitee) {
+        return invites.remove(invitee);
+    }
+
+    /**
+     * Cancels the expiry timers of all pending invites.
+     * Called by the party manager, from the party's mailbox, when the party is disbanded.
+     */
+    void cancelInvites() {
+        for(UUID invitee : invites.keySet()) {
+            plugin.inviteManager().cancelInvite(uuid, invitee);
+        }
+
+        invites.clear();
+    }
+
+    /**
+     * Get if the party has been disbanded.
+     * @return Whether the party is disbanded.
+     */
+    public boolean isDisbanded() {
+        return disbanded;
     }
 
     /**
@@ -162,23 +354,120 @@ public class Party {
     /**
      * Removes the invite to a player.
      * @param player Player to remove invite to.
+     * @return Future that completes once the invite was removed.
+     */
+    public CompletableFuture<Void> removeInvite(ProxiedPlayer player) {
+        return run(() -> removeInviteNow(player.getUniqueId()));
+    }
+
+    /**
+     * Removes the invite to a player from the mailbox.
+     * @param invitee UUID of the invited player.
      */
-    public void removeInvite(ProxiedPlayer player) {
-        invites.remove(player.getUniqueId());
+    private void removeInviteNow(UUID invitee) {
+        if(invites.remove(invitee) != null) {
+            plugin.inviteManager().cancelInvite(uuid, invitee);
+        }
     }
 
     /**
      * Removes a player from the party.
+     * Removing the leader disbands the party.
+     * @param player Player to remove.
+     * @return Future that completes once the player was removed.
+     */
+    public CompletableFuture<Void> removePlayer(ProxiedPlayer player) {
+        return run(() -> removePlayerNow(player));
+    }
+
+    /**
+     * Removes a player from the party from the mailbox.
      * @param player Player to remove.
      */
-    public void removePlayer(ProxiedPlayer player) {
+    private void removePlayerNow(ProxiedPlayer player) {
+        if(disbanded) {
+            return;
+        }
+
+        // Disbanded right away, so nothing queued after the leader leaving can still change the party.
         if(getRank(player) == PartyRank.LEADER) {
-            plugin.partyManager().disbandParty(this);
+            plugin.partyManager().disbandNow(this, null);
             return;
         }
 
-        members.remove(player.getUniqueId());
-        syncData();
+        removeMemberNow(player.getUniqueId());
+    }
+
+    /**
+     * Removes a member who stayed offline for longer than the reconnect grace period.
+     * If they were the leader, leadership is handed to a moderator, or a member if there are no moderators,
+     * preferring members who are online. The party is only disbanded if nobody else is left.
+     * Does nothing if the player came back online in the meantime.
+     * @param playerUUID UUID of the offline member.
+     * @return Future that completes with the uuid of the new leader, or null if the leader did not change.
+     */
+    public CompletableFuture<UUID> removeOfflinePlayer(UUID playerUUID) {
+        return submit(() -> {
+            if(disbanded || !members.containsKey(playerUUID) || plugin.getProxy().getPlayer(playerUUID) != null) {
+                return null;
+            }
+
+            UUID newLeader = null;
+            if(playerUUID.equals(leader)) {
+                newLeader = findSuccessor();
+
+                if(newLeader == null) {
+                    plugin.partyManager().disbandNow(this, null);
+                    return null;
+                }
+
+                // Demotes the old leader to moderator, who is then removed below.
+                setRankNow(newLeader, PartyRank.LEADER);
+            }
+
+            removeMemberNow(playerUUID);
+            return newLeader;
+        });
+    }
+
+    /**
+     * Picks the member who should take over from the leader.
+     * Online moderators come first, then online members, then offline moderators and members.
+     * @return UUID of the next leader, or null if the leader is the only member.
+     */
+    private UUID findSuccessor() {
+        UUID offlineSuccessor = null;
+
+        for(PartyRank rank : new PartyRank[]{PartyRank.MODERATOR, PartyRank.MEMBER}) {
+            for(UUID member : ranks.get(rank)) {
+                if(plugin.getProxy().getPlayer(member) != null) {
+                    return member;
+                }
+
+                if(offlineSuccessor == null) {
+                    offlineSuccessor = member;
+                }
+            }
+        }
+
+        return offlineSuccessor;
+    }
+
+    /**
+     * Removes a member who is not the leader from the mailbox.
+     * @param playerUUID UUID of the member to remove.
+     */
+    private void removeMemberNow(UUID playerUUID) {
+        PartyRank rank = members.remove(playerUUID);
+        if(rank == null) {
+            return;
+        }
+
+        ranks.get(rank).remove(playerUUID);
+
+        plugin.partyManager().unindexPlayer(playerUUID, this);
+        invalidateMembers();
+        recordDelta(PartyDelta.memberRemove(playerUUID));
     }
 
     /**
@@ -186,74 +475,281 @@ public class Party {
      * @param message Message to send to party members.
      */
     public void sendMessage(String message) {
-        for(ProxiedPlayer player : getMembers()) {
-            ChatUtils.chat(player, message);
-        }
+        sendMessage(ChatUtils.translate(message));
+    }
+
+    /**
+     * Sends an already rendered chat message to all party members.
+     * The message is only serialized once, no matter how many members the party has.
+     * @param message Rendered message to send.
+     * @param exclude Members who should not get the message.
+     */
+    public void sendMessage(BaseComponent[] message, ProxiedPlayer... exclude) {
+        ChatUtils.broadcast(getMembers(), message, exclude);
     }
 
     /**
      * If the party should be public.
      * @param publicParty Whether the party is public or not.
+     * @return Future that completes once the setting was changed.
      */
-    public void setPublic(boolean publicParty) {
-        this.publicParty = publicParty;
+    public CompletableFuture<Void> setPublic(boolean publicParty) {
+        return run(() -> {
+            if(this.publicParty == publicParty) {
+                return;
+            }
+
+            this.publicParty = publicParty;
+            recordDelta(PartyDelta.settingsChange(PartyMessageEncoder.getSettingsFlags(this)));
+        });
     }
 
     /**
      * Chance a player's rank in the party.
+     * Promoting someone to leader demotes the current leader to moderator.
+     * The current leader cannot be demoted directly, promote the new leader instead.
      * @param player Player to change the rank of.
      * @param rank Rank to set the player to.
+     * @return Future that completes with whether the rank was changed.
      */
-    public void setRank(ProxiedPlayer player, PartyRank rank) {
-        members.put(player.getUniqueId(), rank);
+    public CompletableFuture<Boolean> setRank(ProxiedPlayer player, PartyRank rank) {
+        return submit(() -> setRankNow(player.getUniqueId(), rank));
     }
 
-    public void syncData() {
-        String message = uuid + "~" + getLeader().getUniqueId();
+    /**
+     * Changes a player's rank from the mailbox.
+     * @param playerUUID UUID of the player to change the rank of.
+     * @param rank Rank to set the player to.
+     * @return Whether the rank was changed.
+     */
+    private boolean setRankNow(UUID playerUUID, PartyRank rank) {
+        PartyRank oldRank = members.get(playerUUID);
 
-        if(getMembers().size() > 1) {
-            message += "~";
+        // Only changes existing members, so a stale command can't re-add a removed player.
+        if(disbanded || oldRank == null || oldRank == rank || oldRank == PartyRank.LEADER) {
+            return false;
+        }
 
-            int i = 0;
-            for(ProxiedPlayer player : getMembers()) {
-                if(getRank(player) == PartyRank.LEADER) {
-                    continue;
-                }
+        if(rank == PartyRank.LEADER) {
+            UUID oldLeader = leader;
+            members.put(oldLeader, PartyRank.MODERATOR);
+            ranks.get(PartyRank.LEADER).remove(oldLeader);
+            ranks.get(PartyRank.MODERATOR).add(oldLeader);
+            leader = playerUUID;
+        }
 
-                message += player.getUniqueId().toString();
-                i++;
+        members.put(playerUUID, rank);
+        ranks.get(oldRank).remove(playerUUID);
+        ranks.get(rank).add(playerUUID);
 
-                if(i < getMembers().size() - 1) {
-                    message += ":";
-                }
-            }
+        if(rank == PartyRank.LEADER) {
+            recordDelta(PartyDelta.leaderChange(playerUUID));
+        }
+        else {
+            recordDelta(PartyDelta.rankChange(playerUUID, rank));
         }
 
-        String finalMessage = message;
-        getMembers().forEach(player -> plugin.sendCustomData(player, "sync", finalMessage));
+        return true;
     }
 
-    public void syncData(ProxiedPlayer player) {
-        String message = uuid + "~" + getLeader().getUniqueId();
+    /**
+     * Marks the party as disbanded.
+     * Called by the party manager from the party's mailbox.
+     * @return False if the party was already disbanded.
+     */
+    boolean markDisbanded() {
+        if(disbanded) {
+            return false;
+        }
 
-        if(getMembers().size() > 1) {
-            message += "~";
+        disbanded = true;
+        return true;
+    }
 
-            int i = 0;
-            for(ProxiedPlayer member : getMembers()) {
-                if(getRank(member) == PartyRank.LEADER) {
-                    continue;
-                }
+    /**
+     * Get the version of the party.
+     * Goes up by one for every change made to the party.
+     * @return Version of the party.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Runs an action on the party's mailbox, after every action that was submitted before it.
+     * @param action Action to run.
+     * @param <T> Type of the result.
+     * @return Future that completes with the result of the action.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> action) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        mailbox.execute(() -> {
+            try {
+                future.complete(action.get());
+            }
+            catch (RuntimeException | Error exception) {
+                future.completeExceptionally(exception);
+                throw exception;
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Runs an action on the party's mailbox, after every action that was submitted before it.
+     * @param action Action to run.
+     * @return Future that completes once the action has run.
+     */
+    CompletableFuture<Void> run(Runnable action) {
+        return submit(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records a change to the party and requests a sync.
+     * Must be called from the party's mailbox.
+     * @param delta Change that was made.
+     */
+    private void recordDelta(PartyDelta delta) {
+        version++;
+        pendingDeltas.add(delta);
+        syncData();
+    }
+
+    /**
+     * Requests a sync of the party's data to the backend servers.
+     * Requests are coalesced, so the party is sent at most once per sync interval.
+     */
+    public void syncData() {
+        plugin.syncTask().queue(this);
+    }
+
+    /**
+     * Sends the party's data to the backend servers of all online members right away.
+     * Servers that already have the party only receive the changes since the last sync,
+     * the others receive a full snapshot.
+     * @return Future that completes once the data was sent.
+     */
+    public CompletableFuture<Void> syncDataNow() {
+        return run(this::sendSync);
+    }
+
+    /**
+     * Sends the party's data to the backend servers from the mailbox.
+     */
+    private void sendSync() {
+        // A sync queued before the party was disbanded must not bring it back on the servers, journal or store.
+        if(disbanded) {
+            return;
+        }
+
+        PartyMessageEncoder encoder = plugin.messageEncoder();
+        long baseVersion = version - pendingDeltas.size();
+        boolean sendDeltas = encoder.supportsDeltas() && !pendingDeltas.isEmpty();
 
-                message += member.getUniqueId().toString();
-                i++;
+        // Encoded at most once each, then shared between servers.
+        byte[] snapshot = null;
+        byte[] delta = null;
 
-                if(i < getMembers().size() - 1) {
-                    message += ":";
+        Set<String> currentServers = new HashSet<>();
+        for(ProxiedPlayer member : getMembers()) {
+            // Players who are still connecting don't have a server yet.
+            Server server = member.getServer();
+            if(server == null) {
+                continue;
+            }
+
+            ServerInfo serverInfo = server.getInfo();
+            if(!currentServers.add(serverInfo.getName())) {
+                continue;
+            }
+
+            if(sendDeltas && syncedServers.contains(serverInfo.getName())) {
+                if(delta == null) {
+                    delta = encoder.encodeDelta(uuid, baseVersion, pendingDeltas);
+                }
+
+                plugin.sendCustomData(serverInfo, delta);
+            }
+            else {
+                if(snapshot == null) {
+                    snapshot = encoder.encodeSync(this);
                 }
+
+                plugin.sendCustomData(serverInfo, snapshot);
+            }
+        }
+
+        // Writes the change to the journal, so the party survives a restart.
+        PartyJournal journal = plugin.partyJournal();
+        if(journal != null) {
+            // Changes can only be restored on top of a snapshot, so the party's first record is always a full one.
+            if(!journalled || pendingDeltas.isEmpty()) {
+                journal.recordSync(PartySnapshot.of(this));
+                journalled = true;
+            }
+            else {
+                journal.recordDeltas(uuid, baseVersion, pendingDeltas);
+            }
+        }
+
+        // Servers without members stop receiving changes, so they get a snapshot when someone returns.
+        syncedServers.clear();
+        syncedServers.addAll(currentServers);
+        pendingDeltas.clear();
+
+        // Shares the change with other proxies, when a store is set.
+        plugin.partyManager().saveToStore(this);
+    }
+
+    /**
+     * Sends a full snapshot of the party to the backend server of a single player.
+     * @param player Player whose server should receive the data.
+     * @return Future that completes once the data was sent.
+     */
+    public CompletableFuture<Void> syncData(ProxiedPlayer player) {
+        return run(() -> {
+            Server server = player.getServer();
+            if(server == null) {
+                return;
             }
+
+            resyncNow(server.getInfo());
+        });
+    }
+
+    /**
+     * Sends a full snapshot of the party to a backend server.
+     * Used when the server sees the party for the first time, or reports missing changes.
+     * @param serverInfo Server to send the snapshot to.
+     * @return Future that completes once the snapshot was sent.
+     */
+    public CompletableFuture<Void> resync(ServerInfo serverInfo) {
+        return run(() -> resyncNow(serverInfo));
+    }
+
+    /**
+     * Sends a full snapshot of the party to a backend server from the mailbox.
+     * @param serverInfo Server to send the snapshot to.
+     */
+    private void resyncNow(ServerInfo serverInfo) {
+        // Servers already received the disband, so they are not sent the party again.
+        if(disbanded) {
+            return;
         }
 
-        plugin.sendCustomData(player, "sync", message);
+        plugin.sendCustomData(serverInfo, plugin.messageEncoder().encodeSync(this));
+        syncedServers.add(serverInfo.getName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Online members of the party, along with the membership version they were built from.
+     * @param version Membership version of the snapshot.
+     * @param members Online members.
+     */
+    private record MemberSnapshot(int version, List<ProxiedPlayer> members) {}
+}
@@ -25,17 +25,39 @@
 package net.jadedmc.jadedparty.party;
 
 import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.persistence.PartyJournal;
+import net.jadedmc.jadedparty.store.PartyStore;
+import net.jadedmc.jadedparty.utils.ChatUtils;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Manages all existing party.
+ * Safe to use from the command, event and scheduler threads at the same time.
  */
 public class PartyManager {
+    // How long snapshotParties waits for the mailboxes before reading the parties directly.
+    private static final long SNAPSHOT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
     private final JadedPartyPlugin plugin;
-    private final List<Party> parties = new ArrayList<>();
+    private volatile PartyStore store;
+    private final Map<UUID, Party> parties = new ConcurrentHashMap<>();
+    private final Map<UUID, Party> playerParties = new ConcurrentHashMap<>();
 
     /**
      * Creates the party manager.
@@ -47,29 +69,219 @@ public class PartyManager {
 
     /**
      * Create a new party.
+     * Returns null if the leader is already in a party.
      * @param leader Leader of the party,
      * @return Party that was created.
      */
     public Party createParty(ProxiedPlayer leader) {
         Party party = new Party(plugin, leader);
-        parties.add(party);
+
+        // Registers the party before claiming the leader, so it can't be disbanded before it is registered.
+        parties.put(party.getUUID(), party);
+
+        // Claims the leader, so two racing creates can't both succeed.
+        if(playerParties.putIfAbsent(leader.getUniqueId(), party) != null) {
+            parties.remove(party.getUUID(), party);
+            return null;
+        }
+
+        plugin.partyMetrics().recordPartyCreated();
         party.syncData();
         return party;
     }
 
+    /**
+     * Registers a party restored from a snapshot.
+     * Called on startup, before players can join parties.
+     * Members who are already in another party are left out, and the party's version goes up by one,
+     * so the saved state can be replaced with the restored one.
+     * @param snapshot Saved state of the party.
+     * @return The restored party, or null if the leader is already in another party.
+     */
+    public Party restoreParty(PartySnapshot snapshot) {
+        if(playerParties.containsKey(snapshot.leader())) {
+            return null;
+        }
+
+        // Removes conflicting members before the party is created, so its members always match the player index.
+        Map<UUID, PartyRank> members = new HashMap<>(snapshot.members());
+        for(UUID member : snapshot.members().keySet()) {
+            if(!member.equals(snapshot.leader()) && playerParties.containsKey(member)) {
+                plugin.getLogger().warning("Player " + member + " was restored into two parties, keeping the first.");
+                members.remove(member);
+            }
+        }
+
+        if(members.size() < snapshot.members().size()) {
+            snapshot = new PartySnapshot(snapshot.uuid(), snapshot.version() + 1, snapshot.leader(), snapshot.publicParty(), Map.copyOf(members));
+        }
+
+        Party party = new Party(plugin, snapshot);
+        for(UUID member : members.keySet()) {
+            playerParties.put(member, party);
+        }
+
+        parties.put(party.getUUID(), party);
+        saveToStore(party);
+        return party;
+    }
+
+    /**
+     * Takes a snapshot of every party.
+     * Each snapshot is taken on its party's mailbox, so it is consistent. Once the executor
+     * has shut down, no party can change anymore, so snapshots are taken directly.
+     * Parties whose mailbox does not get to the snapshot in time are also snapshotted directly,
+     * so a stuck mailbox can't hold up compaction or shutdown.
+     * @return Snapshots of all parties.
+     */
+    public List<PartySnapshot> snapshotParties() {
+        Map<Party, CompletableFuture<PartySnapshot>> futures = new LinkedHashMap<>();
+        List<PartySnapshot> snapshots = new ArrayList<>(parties.size());
+
+        for(Party party : parties.values()) {
+            try {
+                futures.put(party, party.submit(() -> PartySnapshot.of(party)));
+            }
+            catch (RejectedExecutionException exception) {
+                snapshots.add(PartySnapshot.of(party));
+            }
+        }
+
+        long deadline = System.nanoTime() + SNAPSHOT_TIMEOUT_NANOS;
+        int missed = 0;
+
+        for(Map.Entry<Party, CompletableFuture<PartySnapshot>> entry : futures.entrySet()) {
+            try {
+                snapshots.add(entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                snapshots.add(PartySnapshot.of(entry.getKey()));
+            }
+            catch (ExecutionException | TimeoutException exception) {
+                missed++;
+                snapshots.add(PartySnapshot.of(entry.getKey()));
+            }
+        }
+
+        if(missed > 0) {
+            plugin.getLogger().warning(missed + " parties could not be snapshotted on their mailbox, and were read directly.");
+        }
+
+        return snapshots;
+    }
+
     /**
      * Disbands an active party.
      * @param party Party to disband.
+     * @return Future that completes once the party was disbanded.
      */
-    public void disbandParty(Party party) {
-        getParties().remove(party);
+    public CompletableFuture<Void> disbandParty(Party party) {
+        return disbandParty(party, null);
+    }
+
+    /**
+     * Disbands a party, letting its members know why.
+     * The message goes to the members the party had when it was disbanded.
+     * @param party Party to disband.
+     * @param message Rendered message to send to the members, or null to send nothing.
+     * @return Future that completes once the party was disbanded.
+     */
+    public CompletableFuture<Void> disbandParty(Party party, BaseComponent[] message) {
+        return party.run(() -> disbandNow(party, message));
+    }
+
+    /**
+     * Disbands a party.
+     * Must be called from the party's mailbox.
+     * @param party Party to disband.
+     * @param message Rendered message to send to the members, or null to send nothing.
+     */
+    void disbandNow(Party party, BaseComponent[] message) {
+        // Makes sure the party is only disbanded once.
+        if(!party.markDisbanded()) {
+            return;
+        }
+
+        parties.remove(party.getUUID(), party);
+        PartyStore store = this.store;
+        if(store != null) {
+            store.remove(party.getUUID());
+        }
+        plugin.partyMetrics().recordPartyDisbanded();
+
+        PartyJournal journal = plugin.partyJournal();
+        if(journal != null) {
+            journal.recordDisband(party.getUUID());
+        }
+
+        party.cancelInvites();
+
+        // Removes all members from the player index.
+        for(UUID member : party.getMemberUUIDs()) {
+            playerParties.remove(member, party);
+        }
 
         // Make sure spigot servers know the party was disbanded.
-        for(ProxiedPlayer player : party.getMembers()) {
-            plugin.sendCustomData(player, "disband", party.getUUID().toString());
+        Collection<ProxiedPlayer> members = party.getMembers();
+        plugin.sendCustomData(members, plugin.messageEncoder().encodeDisband(party.getUUID()));
+
+        if(message != null) {
+            ChatUtils.broadcast(members, message);
         }
     }
 
+    /**
+     * Get if a player is in a party on any proxy.
+     * Parties on this proxy are read from the player index, which is always up to date.
+     * Parties on other proxies are read from the store, so they may be slightly out of date.
+     * @param playerUUID UUID of the player.
+     * @return Whether the player is in a party.
+     */
+    public boolean isInParty(UUID playerUUID) {
+        if(playerParties.containsKey(playerUUID)) {
+            return true;
+        }
+
+        PartyStore store = this.store;
+        if(store == null) {
+            return false;
+        }
+
+        // The store's copy of a party hosted here can be a sync behind the index, which was already checked.
+        PartySnapshot snapshot = store.getPartyFromPlayer(playerUUID);
+        return snapshot != null && !parties.containsKey(snapshot.uuid());
+    }
+
+    /**
+     * Saves a party hosted on this proxy to the store, if there is one.
+     * Called from the party's mailbox after every sync.
+     * @param party Party that changed.
+     */
+    void saveToStore(Party party) {
+        PartyStore store = this.store;
+        if(store != null) {
+            store.save(party);
+        }
+    }
+
+    /**
+     * Get the store parties are shared with other proxies through.
+     * @return PartyStore, or null if parties only exist on this proxy.
+     */
+    public PartyStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the store parties are shared with other proxies through.
+     * Parties that already exist are saved to it on their next sync.
+     * @param store Store to use, or null to stop sharing parties.
+     */
+    public void setStore(PartyStore store) {
+        this.store = store;
+    }
+
     /**
      * Get the party a player is in.
      * Returns null if not in a party.
@@ -77,35 +289,71 @@ public class PartyManager {
      * @return Party the player is in.
      */
     public Party getParty(ProxiedPlayer player) {
-        for(Party party : getParties()) {
-            if(party.getMembers().contains(player)) {
-                return party;
-            }
-        }
+        return getPartyFromPlayer(player.getUniqueId());
+    }
 
-        return null;
+    /**
+     * Get the party a player is in, using their uuid.
+     * Works whether the player is online or not.
+     * Returns null if not in a party.
+     * @param playerUUID UUID of the player.
+     * @return Party the player is in.
+     */
+    public Party getPartyFromPlayer(UUID playerUUID) {
+        return playerParties.get(playerUUID);
     }
 
     /**
      * Get a party based off it's uuid.
-     * @param uuid UUID of the party.
+     * Returns null if the string is not a valid uuid.
+     * @param uuid UUID of the party, as a String.
      * @return Party object.
      */
     public Party getParty(String uuid) {
-        for(Party party : getParties()) {
-            if(party.getUUID().toString().equalsIgnoreCase(uuid)) {
-                return party;
-            }
+        try {
+            return getParty(UUID.fromString(uuid));
         }
+        catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
 
-        return null;
+    /**
+     * Get a party based off it's uuid.
+     * @param uuid UUID of the party.
+     * @return Party object.
+     */
+    public Party getParty(UUID uuid) {
+        return parties.get(uuid);
     }
 
     /**
      * Get all current parties.
-     * @return All current parties.
+     * @return Read-only view of all current parties.
+     */
+    public Collection<Party> getParties() {
+        return Collections.unmodifiableCollection(parties.values());
+    }
+
+    /**
+     * Adds a player to the player index.
+     * Called by the party when a member joins.
+     * @param playerUUID UUID of the player.
+     * @param party Party the player joined.
+     * @return False if the player is already in a different party.
+     */
+    boolean indexPlayer(UUID playerUUID, Party party) {
+        Party existing = playerParties.putIfAbsent(playerUUID, party);
+        return existing == null || existing == party;
+    }
+
+    /**
+     * Removes a player from the player index.
+     * Only removes the entry if it still points to the given party.
+     * @param playerUUID UUID of the player.
+     * @param party Party the player left.
      */
-    public List<Party> getParties() {
-        return parties;
+    void unindexPlayer(UUID playerUUID, Party party) {
+        playerParties.remove(playerUUID, party);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable copy of a party's state.
+ * Used to save parties to the journal, and to share them through a PartyStore, where the live Party object doesn't exist.
+ * @param uuid UUID of the party.
+ * @param version Version of the party when the snapshot was taken.
+ * @param leader UUID of the party leader.
+ * @param publicParty Whether the party is public.
+ * @param members Members of the party and their ranks.
+ */
+public record PartySnapshot(UUID uuid, long version, UUID leader, boolean publicParty, Map<UUID, PartyRank> members) {
+
+    /**
+     * Takes a snapshot of a party.
+     * Should be called from the party's mailbox, so the copy is consistent.
+     * @param party Party to take a snapshot of.
+     * @return Snapshot of the party.
+     */
+    public static PartySnapshot of(Party party) {
+        return new PartySnapshot(party.getUUID(), party.getVersion(), party.getLeaderUUID(), party.isPublic(), Map.copyOf(party.getRanks()));
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.metrics.PartyMetrics;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps disconnected players in their party for a grace period, so a quick reconnect or proxy hop
+ * doesn't disband the party or remove them from it.
+ * Each offline member has a single timer, cancelled when they come back. Once it runs out they are removed,
+ * and if they were the leader, leadership is handed to another member instead of disbanding the party.
+ */
+public class ReconnectManager {
+    private static final MessageTemplate TIMED_OUT = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &awas removed from the party for being offline too long.", "player");
+    private static final MessageTemplate LEADER_HANDED_OVER = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <white><player> &ais now the party leader.", "player");
+
+    private final JadedPartyPlugin plugin;
+    private final int graceSeconds;
+    private final Map<UUID, OfflineMember> offlineMembers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the reconnect manager.
+     * @param plugin Instance of the plugin.
+     * @param graceSeconds How long, in seconds, a disconnected player stays in their party. 0 removes them right away.
+     */
+    public ReconnectManager(JadedPartyPlugin plugin, int graceSeconds) {
+        this.plugin = plugin;
+        this.graceSeconds = Math.max(0, graceSeconds);
+    }
+
+    /**
+     * Get if disconnected players are kept in their party.
+     * @return Whether the grace period is enabled.
+     */
+    public boolean isEnabled() {
+        return graceSeconds > 0;
+    }
+
+    /**
+     * Get how long a disconnected player stays in their party.
+     * @return Grace period, in seconds.
+     */
+    public int getGraceSeconds() {
+        return graceSeconds;
+    }
+
+    /**
+     * Starts the grace period of a member who disconnected, replacing any grace period they already had.
+     * @param party Party the player is in.
+     * @param playerUUID UUID of the player.
+     * @param name Name of the player, for the message sent when they time out. Null if it is not known.
+     */
+    public void markOffline(Party party, UUID playerUUID, String name) {
+        OfflineMember member = new OfflineMember(party.getUUID(), name);
+        member.task = plugin.getProxy().getScheduler().schedule(plugin, () -> expire(playerUUID, member), graceSeconds, TimeUnit.SECONDS);
+
+        OfflineMember previous = offlineMembers.put(playerUUID, member);
+        if(previous != null) {
+            previous.task.cancel();
+        }
+    }
+
+    /**
+     * Starts the grace period of every member of a party who is not online.
+     * Used for parties restored after a restart, whose members have not reconnected yet.
+     * Without a grace period, offline members are removed right away, the same as players who disconnect.
+     * @param party Party to check.
+     */
+    public void markOfflineMembers(Party party) {
+        for(UUID member : party.getMemberUUIDs()) {
+            if(plugin.getProxy().getPlayer(member) != null) {
+                continue;
+            }
+
+            if(isEnabled()) {
+                markOffline(party, member, null);
+            }
+            else {
+                party.removeOfflinePlayer(member);
+            }
+        }
+    }
+
+    /**
+     * Ends the grace period of a player who came back online.
+     * @param player Player who reconnected.
+     * @return Whether the player was in their grace period.
+     */
+    public boolean markOnline(ProxiedPlayer player) {
+        OfflineMember member = offlineMembers.remove(player.getUniqueId());
+        if(member == null) {
+            return false;
+        }
+
+        member.task.cancel();
+        return true;
+    }
+
+    /**
+     * Get if a player is a disconnected member waiting to reconnect.
+     * @param playerUUID UUID of the player.
+     * @return Whether the player is in their grace period.
+     */
+    public boolean isOffline(UUID playerUUID) {
+        return offlineMembers.containsKey(playerUUID);
+    }
+
+    /**
+     * Get the number of disconnected members waiting to reconnect.
+     * @return Number of offline members.
+     */
+    public int getOfflineMembers() {
+        return offlineMembers.size();
+    }
+
+    /**
+     * Stops every grace period without removing anyone.
+     * Used when the plugin is disabled, so offline members are saved with their party.
+     */
+    public void shutdown() {
+        for(OfflineMember member : offlineMembers.values()) {
+            member.task.cancel();
+        }
+
+        offlineMembers.clear();
+    }
+
+    /**
+     * Removes a member whose grace period ran out.
+     * @param playerUUID UUID of the player.
+     * @param member Grace period that ran out.
+     */
+    private void expire(UUID playerUUID, OfflineMember member) {
+        long start = System.nanoTime();
+
+        try {
+            // Only the latest grace period of a player removes them.
+            if(!offlineMembers.remove(playerUUID, member)) {
+                return;
+            }
+
+            Party party = plugin.partyManager().getParty(member.partyUUID);
+            if(party == null) {
+                return;
+            }
+
+            party.removeOfflinePlayer(playerUUID).thenAccept(newLeader -> {
+                if(party.isDisbanded() || party.getRank(playerUUID) != null) {
+                    return;
+                }
+
+                if(member.name != null) {
+                    party.sendMessage(TIMED_OUT.render(member.name));
+                }
+
+                ProxiedPlayer leader = newLeader == null ? null : plugin.getProxy().getPlayer(newLeader);
+                if(leader != null) {
+                    party.sendMessage(LEADER_HANDED_OVER.render(leader.getName()));
+                }
+            });
+        }
+        catch (RejectedExecutionException exception) {
+            // The timer fired while the plugin was being disabled, so the member stays and is saved with their party.
+        }
+        finally {
+            plugin.partyMetrics().recordTask(PartyMetrics.TASK_GRACE_EXPIRY, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * A member waiting to reconnect.
+     * Compared by identity, so a replaced grace period is never mistaken for its replacement.
+     */
+    private static class OfflineMember {
+        private final UUID partyUUID;
+        private final String name;
+        private ScheduledTask task;
+
+        private OfflineMember(UUID partyUUID, String name) {
+            this.partyUUID = partyUUID;
+            this.name = name;
+        }
+    }
+}
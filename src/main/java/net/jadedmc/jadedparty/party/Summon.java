@@ -0,0 +1,232 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.metrics.PartyMetrics;
+import net.jadedmc.jadedparty.utils.MessageTemplate;
+import net.jadedmc.jadedparty.utils.StringUtils;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves the members of a party to the leader's server in waves, instead of all at once.
+ * Collects the result of every connection and reports a single summary to the leader once all of them finished.
+ * Every member ends up either summoned or in the failed list, so the summary always adds up to the total.
+ * Members who were still waiting for their wave when the summon was cancelled count as failed.
+ */
+public class Summon implements Runnable {
+    private static final MessageTemplate SUMMONED = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>You have been summoned to <white><player><green>'s server.", "player");
+    private static final MessageTemplate SUMMON_RESULT = MessageTemplate.of("<green><bold>Party</bold> <dark_gray>» <green>Summoned <white><connected> <green>of <white><total> <green>members.", "connected", "total");
+    private static final MessageTemplate SUMMON_FAILED = MessageTemplate.of("<red><bold>Party</bold> <dark_gray>» <red>Could not summon: <white><names>", "names");
+    private static final MessageTemplate SUMMON_CANCELLED = MessageTemplate.of("<red><bold>Party</bold> <dark_gray>» <red>Summon cancelled, because you changed servers.");
+
+    private final JadedPartyPlugin plugin;
+    private final SummonManager summonManager;
+    private final Party party;
+    private final ProxiedPlayer leader;
+    private final ServerInfo target;
+    private final Queue<ProxiedPlayer> remaining;
+    private final int total;
+    private final int waveSize;
+    private final long waveInterval;
+    private final BaseComponent[] summoned;
+
+    // Results, updated from the connection callbacks.
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final Queue<String> failed = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+    private volatile boolean cancelled = false;
+
+    /**
+     * Creates a summon.
+     * @param plugin Instance of the plugin.
+     * @param summonManager Summon manager tracking the summon.
+     * @param party Party being summoned.
+     * @param leader Leader who started the summon.
+     * @param target Server the members are moved to.
+     * @param members Members to move.
+     * @param waveSize Number of members to connect at once.
+     * @param waveInterval Time between waves, in milliseconds.
+     */
+    Summon(JadedPartyPlugin plugin, SummonManager summonManager, Party party, ProxiedPlayer leader, ServerInfo target, Collection<ProxiedPlayer> members, int waveSize, long waveInterval) {
+        this.plugin = plugin;
+        this.summonManager = summonManager;
+        this.party = party;
+        this.leader = leader;
+        this.target = target;
+        this.remaining = new ConcurrentLinkedQueue<>(members);
+        this.total = members.size();
+        this.waveSize = waveSize;
+        this.waveInterval = waveInterval;
+
+        // Every member gets the same message, so it is only rendered once.
+        this.summoned = SUMMONED.render(leader.getName());
+    }
+
+    /**
+     * Connects the next wave of members, then schedules the wave after it.
+     */
+    @Override
+    public void run() {
+        if(cancelled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        // Counts the wave itself as pending, so a connection finishing mid-wave can't report before the wave was sent.
+        pending.incrementAndGet();
+
+        for(int i = 0; i < waveSize; i++) {
+            ProxiedPlayer member = remaining.poll();
+            if(member == null) {
+                break;
+            }
+
+            // Members who already are on the server count as summoned.
+            Server server = member.getServer();
+            if(server != null && server.getInfo() == target) {
+                connected.incrementAndGet();
+                continue;
+            }
+
+            // Members who left the party, went offline or are still connecting can't be summoned.
+            if(!member.isConnected() || party.getRank(member) == null || server == null) {
+                failed.add(member.getName());
+                continue;
+            }
+
+            pending.incrementAndGet();
+            member.connect(target, (success, error) -> {
+                if(success != null && success) {
+                    connected.incrementAndGet();
+                    member.sendMessage(summoned);
+                }
+                else {
+                    failed.add(member.getName());
+                }
+
+                pending.decrementAndGet();
+                reportIfDone();
+            });
+        }
+
+        pending.decrementAndGet();
+        plugin.partyMetrics().recordTask(PartyMetrics.TASK_SUMMON_WAVE, System.nanoTime() - start);
+
+        if(remaining.isEmpty()) {
+            reportIfDone();
+        }
+        else {
+            plugin.getProxy().getScheduler().schedule(plugin, this, waveInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops sending new waves.
+     * Connections that were already started still finish, and the leader is told the summon was cancelled.
+     * Members whose wave was not sent yet are reported as failed.
+     */
+    public void cancel() {
+        cancelled = true;
+
+        ProxiedPlayer member;
+        while((member = remaining.poll()) != null) {
+            failed.add(member.getName());
+        }
+
+        SUMMON_CANCELLED.send(leader);
+        reportIfDone();
+    }
+
+    /**
+     * Stops sending new waves without telling the leader, because a new summon replaced this one.
+     * Only the new summon reports a summary.
+     */
+    void replace() {
+        cancelled = true;
+        remaining.clear();
+        reported.set(true);
+    }
+
+    /**
+     * Get the party being summoned.
+     * @return Party being summoned.
+     */
+    public Party getParty() {
+        return party;
+    }
+
+    /**
+     * Get the server the members are being moved to.
+     * @return Target server.
+     */
+    public ServerInfo getTarget() {
+        return target;
+    }
+
+    /**
+     * Get if the summon was cancelled.
+     * @return Whether the summon was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Sends the summary to the leader once every wave was sent and every connection finished.
+     */
+    private void reportIfDone() {
+        if(!remaining.isEmpty() || pending.get() > 0 || !reported.compareAndSet(false, true)) {
+            return;
+        }
+
+        summonManager.finish(this);
+
+        if(!leader.isConnected()) {
+            return;
+        }
+
+        SUMMON_RESULT.send(leader, String.valueOf(connected.get()), String.valueOf(total));
+
+        List<String> failedNames = new ArrayList<>(failed);
+        if(!failedNames.isEmpty()) {
+            SUMMON_FAILED.send(leader, StringUtils.join(failedNames, ", "));
+        }
+    }
+}
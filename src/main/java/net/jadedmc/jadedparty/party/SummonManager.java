@@ -0,0 +1,128 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of running summons, so a party only has one at a time
+ * and a summon can be cancelled when its leader changes servers.
+ */
+public class SummonManager {
+    private final JadedPartyPlugin plugin;
+    private final int waveSize;
+    private final long waveInterval;
+    private final Map<UUID, Summon> summons = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the summon manager.
+     * @param plugin Instance of the plugin.
+     * @param waveSize Number of members to connect at once.
+     * @param waveInterval Time between waves, in milliseconds.
+     */
+    public SummonManager(JadedPartyPlugin plugin, int waveSize, long waveInterval) {
+        this.plugin = plugin;
+        this.waveSize = Math.max(1, waveSize);
+        this.waveInterval = Math.max(0, waveInterval);
+    }
+
+    /**
+     * Summons the members of a party to the leader's server.
+     * Replaces any summon of the same party that is still running.
+     * @param party Party to summon.
+     * @param leader Leader of the party.
+     * @return The summon, or null if the leader is not on a server yet.
+     */
+    public Summon summon(Party party, ProxiedPlayer leader) {
+        Server server = leader.getServer();
+        if(server == null) {
+            return null;
+        }
+
+        ServerInfo target = server.getInfo();
+
+        // Members already on the leader's server don't need to move.
+        List<ProxiedPlayer> members = new ArrayList<>();
+        for(ProxiedPlayer member : party.getMembers()) {
+            Server memberServer = member.getServer();
+
+            if(member != leader && (memberServer == null || memberServer.getInfo() != target)) {
+                members.add(member);
+            }
+        }
+
+        Summon summon = new Summon(plugin, this, party, leader, target, members, waveSize, waveInterval);
+        Summon previous = summons.put(party.getUUID(), summon);
+        if(previous != null) {
+            previous.replace();
+        }
+
+        summon.run();
+        return summon;
+    }
+
+    /**
+     * Cancels the summon of a leader's party if the leader moved away from the summon's server.
+     * @param leader Player who changed servers.
+     */
+    public void onLeaderSwitch(ProxiedPlayer leader) {
+        Party party = plugin.partyManager().getParty(leader);
+        if(party == null || !leader.getUniqueId().equals(party.getLeaderUUID())) {
+            return;
+        }
+
+        Summon summon = summons.get(party.getUUID());
+        Server server = leader.getServer();
+        if(summon != null && (server == null || server.getInfo() != summon.getTarget())) {
+            summons.remove(party.getUUID(), summon);
+            summon.cancel();
+        }
+    }
+
+    /**
+     * Get the number of summons that are still running.
+     * @return Number of running summons.
+     */
+    public int getActiveSummons() {
+        return summons.size();
+    }
+
+    /**
+     * Stops tracking a summon once it finished.
+     * @param summon Summon that finished.
+     */
+    void finish(Summon summon) {
+        summons.remove(summon.getParty().getUUID(), summon);
+    }
+}
@@ -0,0 +1,686 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.persistence;
+
+import net.jadedmc.jadedparty.party.PartyRank;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+import net.jadedmc.jadedparty.sync.PartyDelta;
+import net.jadedmc.jadedparty.sync.PartyFrameReader;
+import net.jadedmc.jadedparty.sync.PartyMessageEncoder;
+import net.jadedmc.jadedparty.sync.SyncProtocol;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Saves parties to disk, so they survive a proxy restart or plugin reload.
+ * <p>
+ * Every sync of a party is appended to a journal as the same binary SYNC, DELTA and DISBAND frames sent to the
+ * backend servers. Records are queued by the party's mailbox and written by a single background thread in batches.
+ * Every so often the journal is compacted: a new journal generation is started, a snapshot of every party is written,
+ * and the older generations are deleted.
+ * <p>
+ * Files, all made of records that are a frame prefixed by its length as a VarInt:
+ * <pre>
+ * parties.snapshot: magic (int), format (byte), generation (long), party count (varint), [SYNC record]...
+ * journal-N.bin:    [SYNC, DELTA or DISBAND record]...
+ * </pre>
+ * A snapshot of generation N covers everything written to the journals before generation N, so restoring reads the
+ * snapshot and then replays journal N and newer. Changes the snapshot already contains are skipped by their version.
+ */
+public class PartyJournal {
+    private static final int SNAPSHOT_MAGIC = 0x4A50534E;
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final String SNAPSHOT_FILE = "parties.snapshot";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".bin";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final Logger logger;
+    private final PartyMessageEncoder encoder = new PartyMessageEncoder(SyncProtocol.BINARY);
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private ScheduledExecutorService writer;
+    private FileChannel journal;
+    private long generation = 0;
+
+    // Generation of the newest snapshot written, so a slower compaction never replaces it with an older one.
+    private long snapshotGeneration = 0;
+
+    // Metrics
+    private final LongAdder recordsQueued = new LongAdder();
+    private final LongAdder recordsWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder batchesWritten = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private volatile long lastRestoreNanos = 0;
+
+    /**
+     * Creates the journal.
+     * @param directory Folder the journal and snapshot are stored in.
+     * @param logger Logger to report problems to.
+     */
+    public PartyJournal(Path directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the saved parties from the snapshot and the journal after it.
+     * Must be called before the journal is started.
+     * @return Every party that was not disbanded.
+     * @throws IOException If the files could not be read.
+     */
+    public synchronized Collection<PartySnapshot> restore() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+
+        Map<UUID, RestoredParty> parties = new HashMap<>();
+        snapshotGeneration = readSnapshot(parties);
+        generation = snapshotGeneration;
+
+        for(long journalGeneration : getJournalGenerations()) {
+            if(journalGeneration >= snapshotGeneration) {
+                readJournal(getJournalFile(journalGeneration), parties);
+            }
+
+            generation = Math.max(generation, journalGeneration);
+        }
+
+        List<PartySnapshot> snapshots = new ArrayList<>(parties.size());
+        for(RestoredParty party : parties.values()) {
+            snapshots.add(party.toSnapshot());
+        }
+
+        lastRestoreNanos = System.nanoTime() - start;
+        return snapshots;
+    }
+
+    /**
+     * Starts writing to a new journal generation, and schedules the background writes.
+     * @param flushInterval How often queued records are written, in milliseconds.
+     * @param compactInterval How often the journal is compacted, in seconds.
+     * @param snapshots Supplies a snapshot of every party when compacting.
+     * @throws IOException If the journal could not be opened.
+     */
+    public synchronized void start(long flushInterval, long compactInterval, Supplier<? extends Collection<PartySnapshot>> snapshots) throws IOException {
+        Files.createDirectories(directory);
+        openJournal(generation + 1);
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "JadedParty Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        writer.scheduleWithFixedDelay(this::flushSafely, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        writer.scheduleWithFixedDelay(() -> compactSafely(snapshots), compactInterval, compactInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a full snapshot of a party, used when the party is created.
+     * @param snapshot Snapshot of the party.
+     */
+    public void recordSync(PartySnapshot snapshot) {
+        queue(encoder.encodeSync(snapshot));
+    }
+
+    /**
+     * Queues changes made to a party.
+     * The changes are encoded right away, so the list can be reused once this returns.
+     * @param partyUUID UUID of the party that changed.
+     * @param baseVersion Version of the party before the first change.
+     * @param deltas Changes, in the order they were made.
+     */
+    public void recordDeltas(UUID partyUUID, long baseVersion, List<PartyDelta> deltas) {
+        queue(encoder.encodeDelta(partyUUID, baseVersion, deltas));
+    }
+
+    /**
+     * Queues a party being disbanded.
+     * @param partyUUID UUID of the disbanded party.
+     */
+    public void recordDisband(UUID partyUUID) {
+        queue(encoder.encodeDisband(partyUUID));
+    }
+
+    /**
+     * Writes every queued record to the journal in as few writes as possible.
+     * @throws IOException If the journal could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        if(journal == null || pending.isEmpty()) {
+            return;
+        }
+
+        int records = 0;
+        byte[] record;
+        while((record = pending.poll()) != null) {
+            writeRecord(journal, record);
+            records++;
+        }
+
+        drain(journal);
+        recordsWritten.add(records);
+        batchesWritten.increment();
+    }
+
+    /**
+     * Starts a new journal generation and writes a snapshot of every party, then deletes the older generations.
+     * The snapshots are only taken once the new generation is open, so every change missing from them is in the new journal.
+     * The journal is not locked while the snapshots are taken, since that waits on every party's mailbox.
+     * @param snapshots Supplies a snapshot of every party.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public void compact(Supplier<? extends Collection<PartySnapshot>> snapshots) throws IOException {
+        long compactGeneration;
+
+        synchronized(this) {
+            if(journal == null) {
+                return;
+            }
+
+            // Everything queued so far goes to the old generation, which the snapshot will cover.
+            flush();
+            journal.force(false);
+            journal.close();
+            openJournal(generation + 1);
+            compactGeneration = generation;
+        }
+
+        Collection<PartySnapshot> parties = snapshots.get();
+
+        synchronized(this) {
+            // Another compaction already wrote a newer snapshot, which also covers these parties.
+            if(compactGeneration <= snapshotGeneration) {
+                return;
+            }
+
+            writeSnapshot(parties, compactGeneration);
+            snapshotGeneration = compactGeneration;
+
+            for(long journalGeneration : getJournalGenerations()) {
+                if(journalGeneration < compactGeneration) {
+                    Files.deleteIfExists(getJournalFile(journalGeneration));
+                }
+            }
+        }
+
+        compactions.increment();
+    }
+
+    /**
+     * Stops the background writes, then compacts the journal one last time.
+     * The next start only has to read the snapshot.
+     * @param snapshots Supplies a snapshot of every party.
+     */
+    public void close(Supplier<? extends Collection<PartySnapshot>> snapshots) {
+        synchronized(this) {
+            if(writer != null) {
+                writer.shutdown();
+            }
+        }
+
+        compactSafely(snapshots);
+
+        synchronized(this) {
+            try {
+                if(journal != null) {
+                    journal.force(true);
+                    journal.close();
+                    journal = null;
+                }
+            }
+            catch (IOException exception) {
+                logger.log(Level.SEVERE, "Could not close the party journal", exception);
+            }
+        }
+    }
+
+    /**
+     * Get the number of records waiting to be written.
+     * @return Number of queued records.
+     */
+    public int getPendingRecords() {
+        return pending.size();
+    }
+
+    /**
+     * Get the number of records that were queued.
+     * @return Number of queued records.
+     */
+    public long getRecordsQueued() {
+        return recordsQueued.sum();
+    }
+
+    /**
+     * Get the number of records written to the journal.
+     * @return Number of written records.
+     */
+    public long getRecordsWritten() {
+        return recordsWritten.sum();
+    }
+
+    /**
+     * Get the number of bytes written to the journal and snapshots.
+     * @return Number of written bytes.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Get the number of batches written to the journal.
+     * @return Number of written batches.
+     */
+    public long getBatchesWritten() {
+        return batchesWritten.sum();
+    }
+
+    /**
+     * Get the number of times the journal was compacted.
+     * @return Number of compactions.
+     */
+    public long getCompactions() {
+        return compactions.sum();
+    }
+
+    /**
+     * Get how long the last restore took.
+     * @return Restore time, in nanoseconds.
+     */
+    public long getLastRestoreNanos() {
+        return lastRestoreNanos;
+    }
+
+    /**
+     * Adds a record to the write queue.
+     * @param record Encoded frame.
+     */
+    private void queue(byte[] record) {
+        pending.add(record);
+        recordsQueued.increment();
+    }
+
+    /**
+     * Flushes the queue, logging any error instead of throwing it.
+     */
+    private void flushSafely() {
+        try {
+            flush();
+        }
+        catch (IOException exception) {
+            logger.log(Level.SEVERE, "Could not write the party journal", exception);
+        }
+    }
+
+    /**
+     * Compacts the journal, logging any error instead of throwing it.
+     * @param snapshots Supplies a snapshot of every party.
+     */
+    private void compactSafely(Supplier<? extends Collection<PartySnapshot>> snapshots) {
+        try {
+            compact(snapshots);
+        }
+        catch (IOException exception) {
+            logger.log(Level.SEVERE, "Could not compact the party journal", exception);
+        }
+    }
+
+    /**
+     * Opens a journal generation for appending.
+     * @param journalGeneration Generation to open.
+     * @throws IOException If the file could not be opened.
+     */
+    private void openJournal(long journalGeneration) throws IOException {
+        generation = journalGeneration;
+        journal = FileChannel.open(getJournalFile(journalGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, then moves it over the old snapshot.
+     * @param snapshots Snapshot of every party.
+     * @param snapshotGeneration First journal generation not covered by the snapshot.
+     * @throws IOException If the snapshot could not be written.
+     */
+    private void writeSnapshot(Collection<PartySnapshot> snapshots, long snapshotGeneration) throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeBuffer.clear();
+            writeBuffer.putInt(SNAPSHOT_MAGIC).put((byte) SNAPSHOT_FORMAT).putLong(snapshotGeneration);
+            writeVarInt(snapshots.size());
+
+            for(PartySnapshot snapshot : snapshots) {
+                writeRecord(channel, encoder.encodeSync(snapshot));
+            }
+
+            drain(channel);
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds a record to the write buffer, writing the buffer out whenever it fills up.
+     * @param channel Channel to write to.
+     * @param record Encoded frame.
+     * @throws IOException If the channel could not be written.
+     */
+    private void writeRecord(FileChannel channel, byte[] record) throws IOException {
+        if(writeBuffer.remaining() < record.length + 5) {
+            drain(channel);
+        }
+
+        writeVarInt(record.length);
+
+        // Records bigger than the buffer are written straight to the channel.
+        if(record.length > writeBuffer.remaining()) {
+            drain(channel);
+            ByteBuffer large = ByteBuffer.wrap(record);
+            while(large.hasRemaining()) {
+                bytesWritten.add(channel.write(large));
+            }
+            return;
+        }
+
+        writeBuffer.put(record);
+    }
+
+    /**
+     * Writes everything in the write buffer to a channel.
+     * @param channel Channel to write to.
+     * @throws IOException If the channel could not be written.
+     */
+    private void drain(FileChannel channel) throws IOException {
+        writeBuffer.flip();
+        while(writeBuffer.hasRemaining()) {
+            bytesWritten.add(channel.write(writeBuffer));
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Writes an int to the write buffer using 7 bits per byte.
+     * @param value Int to write.
+     */
+    private void writeVarInt(int value) {
+        while((value & ~0x7F) != 0) {
+            writeBuffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        writeBuffer.put((byte) value);
+    }
+
+    /**
+     * Reads the snapshot file into the map of parties.
+     * @param parties Parties read so far.
+     * @return First journal generation not covered by the snapshot, or 0 if there is no snapshot.
+     * @throws IOException If the file could not be read.
+     */
+    private long readSnapshot(Map<UUID, RestoredParty> parties) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if(!Files.exists(file)) {
+            return 0;
+        }
+
+        ByteBuffer buffer = readFile(file);
+        if(buffer.remaining() < 13 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.get() != SNAPSHOT_FORMAT) {
+            throw new IOException("Unknown party snapshot format");
+        }
+
+        long snapshotGeneration = buffer.getLong();
+
+        try {
+            int count = readVarInt(buffer);
+            for(int i = 0; i < count; i++) {
+                PartySnapshot snapshot = PartyFrameReader.readSnapshot(readRecord(buffer));
+                parties.put(snapshot.uuid(), new RestoredParty(snapshot));
+            }
+        }
+        catch (BufferUnderflowException | IllegalArgumentException exception) {
+            throw new IOException("The party snapshot is damaged", exception);
+        }
+
+        return snapshotGeneration;
+    }
+
+    /**
+     * Replays a journal file onto the map of parties.
+     * A record cut off by a crash ends the file, since nothing after it was ever completely written.
+     * @param file Journal file.
+     * @param parties Parties read so far.
+     * @throws IOException If the file could not be read.
+     */
+    private void readJournal(Path file, Map<UUID, RestoredParty> parties) throws IOException {
+        ByteBuffer buffer = readFile(file);
+
+        while(buffer.hasRemaining()) {
+            byte[] record;
+            try {
+                record = readRecord(buffer);
+            }
+            catch (BufferUnderflowException | IllegalArgumentException exception) {
+                logger.warning("Ignoring an incomplete record at the end of " + file.getFileName());
+                return;
+            }
+
+            try {
+                apply(record, parties);
+            }
+            catch (IllegalArgumentException exception) {
+                logger.log(Level.WARNING, "Skipping a damaged record in " + file.getFileName(), exception);
+            }
+        }
+    }
+
+    /**
+     * Applies a journal record to the map of parties.
+     * @param record Encoded frame.
+     * @param parties Parties read so far.
+     */
+    private void apply(byte[] record, Map<UUID, RestoredParty> parties) {
+        switch (PartyFrameReader.getOpcode(record)) {
+            case PartyMessageEncoder.OPCODE_SYNC -> {
+                PartySnapshot snapshot = PartyFrameReader.readSnapshot(record);
+                RestoredParty party = parties.get(snapshot.uuid());
+
+                if(party == null || party.version < snapshot.version()) {
+                    parties.put(snapshot.uuid(), new RestoredParty(snapshot));
+                }
+            }
+            case PartyMessageEncoder.OPCODE_DELTA -> {
+                PartyFrameReader.DeltaFrame frame = PartyFrameReader.readDelta(record);
+                RestoredParty party = parties.get(frame.partyUUID());
+
+                if(party != null) {
+                    party.apply(frame.baseVersion(), frame.deltas());
+                }
+            }
+            case PartyMessageEncoder.OPCODE_DISBAND -> parties.remove(PartyFrameReader.readPartyUUID(record));
+            default -> throw new IllegalArgumentException("Unknown journal record");
+        }
+    }
+
+    /**
+     * Reads a whole file into a buffer.
+     * @param file File to read.
+     * @return Buffer holding the file.
+     * @throws IOException If the file could not be read.
+     */
+    private static ByteBuffer readFile(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+
+            while(buffer.hasRemaining()) {
+                if(channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Reads a length-prefixed record.
+     * @param buffer Buffer to read from.
+     * @return The record.
+     */
+    private static byte[] readRecord(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if(length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        byte[] record = new byte[length];
+        buffer.get(record);
+        return record;
+    }
+
+    /**
+     * Reads an int written 7 bits per byte.
+     * @param buffer Buffer to read from.
+     * @return The int.
+     */
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("VarInt is too long");
+    }
+
+    /**
+     * Get the generations of every journal file in the folder, oldest first.
+     * @return Journal generations.
+     * @throws IOException If the folder could not be listed.
+     */
+    private List<Long> getJournalGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for(Path file : files) {
+                String name = file.getFileName().toString();
+
+                try {
+                    generations.add(Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())));
+                }
+                catch (NumberFormatException exception) {
+                    logger.warning("Ignoring unknown journal file " + name);
+                }
+            }
+        }
+
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Get the file of a journal generation.
+     * @param journalGeneration Generation of the journal.
+     * @return Path of the journal file.
+     */
+    private Path getJournalFile(long journalGeneration) {
+        return directory.resolve(JOURNAL_PREFIX + journalGeneration + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * A party being rebuilt from the snapshot and journal.
+     */
+    private static class RestoredParty {
+        private final UUID uuid;
+        private final Map<UUID, PartyRank> members;
+        private long version;
+        private UUID leader;
+        private boolean publicParty;
+
+        private RestoredParty(PartySnapshot snapshot) {
+            this.uuid = snapshot.uuid();
+            this.members = new HashMap<>(snapshot.members());
+            this.version = snapshot.version();
+            this.leader = snapshot.leader();
+            this.publicParty = snapshot.publicParty();
+        }
+
+        /**
+         * Applies the changes of a DELTA record that the party doesn't have yet.
+         * @param baseVersion Version of the party before the first change.
+         * @param deltas Changes, in the order they were made.
+         */
+        private void apply(long baseVersion, List<PartyDelta> deltas) {
+            for(int i = 0; i < deltas.size(); i++) {
+                long changeVersion = baseVersion + i + 1;
+                if(changeVersion <= version) {
+                    continue;
+                }
+
+                PartyDelta delta = deltas.get(i);
+                switch (delta.type()) {
+                    case MEMBER_ADD, RANK_CHANGE -> members.put(delta.player(), PartyFrameReader.toRank(delta.value()));
+                    case MEMBER_REMOVE -> members.remove(delta.player());
+                    case LEADER_CHANGE -> {
+                        if(members.containsKey(leader)) {
+                            members.put(leader, PartyRank.MODERATOR);
+                        }
+
+                        members.put(delta.player(), PartyRank.LEADER);
+                        leader = delta.player();
+                    }
+                    case SETTINGS_CHANGE -> publicParty = (delta.value() & PartyMessageEncoder.SETTING_PUBLIC) != 0;
+                }
+
+                version = changeVersion;
+            }
+        }
+
+        private PartySnapshot toSnapshot() {
+            return new PartySnapshot(uuid, version, leader, publicParty, Map.copyOf(members));
+        }
+    }
+}
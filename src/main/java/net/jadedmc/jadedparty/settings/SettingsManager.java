@@ -0,0 +1,98 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.settings;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.md_5.bungee.config.Configuration;
+import net.md_5.bungee.config.ConfigurationProvider;
+import net.md_5.bungee.config.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.logging.Level;
+
+/**
+ * Loads and stores the plugin's configuration file.
+ */
+public class SettingsManager {
+    private final JadedPartyPlugin plugin;
+    private final File configFile;
+    private Configuration config;
+
+    /**
+     * Creates the settings manager, copying the default config.yml if it does not exist yet.
+     * @param plugin Instance of the plugin.
+     */
+    public SettingsManager(JadedPartyPlugin plugin) {
+        this.plugin = plugin;
+        this.configFile = new File(plugin.getDataFolder(), "config.yml");
+
+        saveDefaultConfig();
+        reloadConfig();
+    }
+
+    /**
+     * Get the main configuration file.
+     * @return Main configuration file.
+     */
+    public Configuration getConfig() {
+        return config;
+    }
+
+    /**
+     * Reloads the configuration file from disk.
+     */
+    public void reloadConfig() {
+        try {
+            config = ConfigurationProvider.getProvider(YamlConfiguration.class).load(configFile);
+        }
+        catch (IOException exception) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load config.yml", exception);
+        }
+    }
+
+    /**
+     * Copies the default config.yml into the plugin folder if it is missing.
+     */
+    private void saveDefaultConfig() {
+        if(configFile.exists()) {
+            return;
+        }
+
+        if(!plugin.getDataFolder().exists() && !plugin.getDataFolder().mkdirs()) {
+            plugin.getLogger().severe("Could not create the plugin folder.");
+            return;
+        }
+
+        try(InputStream in = plugin.getResourceAsStream("config.yml")) {
+            Files.copy(in, configFile.toPath());
+        }
+        catch (IOException exception) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save the default config.yml", exception);
+        }
+    }
+}
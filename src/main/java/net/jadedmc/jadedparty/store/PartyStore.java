@@ -0,0 +1,68 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.store;
+
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+
+import java.util.UUID;
+
+/**
+ * Shares parties with other proxies.
+ * JadedParty does not ship a transport. A plugin that connects the proxies, such as over Redis,
+ * implements this and sets it with PartyManager.setStore. Without a store, parties only exist on this proxy.
+ * <p>
+ * The store decides how long other proxies' parties are kept. When a proxy stops or loses its connection,
+ * its parties must expire from the store, or its players stay "in a party" on every other proxy.
+ */
+public interface PartyStore {
+
+    /**
+     * Saves the current state of a party hosted on this proxy.
+     * Called from the party's mailbox after every sync, so it should not block.
+     * @param party Party that changed.
+     */
+    void save(Party party);
+
+    /**
+     * Removes a party hosted on this proxy, because it was disbanded.
+     * Called from the party's mailbox, so it should not block.
+     * @param partyUUID UUID of the disbanded party.
+     */
+    void remove(UUID partyUUID);
+
+    /**
+     * Get the last known state of the party a player is in, on any proxy.
+     * @param playerUUID UUID of the player.
+     * @return Snapshot of the party, or null if the player is not in one.
+     */
+    PartySnapshot getPartyFromPlayer(UUID playerUUID);
+
+    /**
+     * Sends any pending changes and releases the store's resources.
+     * Called when the plugin is disabled.
+     */
+    default void close() {}
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.sync;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A byte buffer used to encode plugin messages.
+ * Encoders work out the size of each frame first, so the buffer is allocated once at its final size
+ * and handed out without a copy. Nothing is pooled, so it works the same on virtual threads.
+ */
+public final class FrameBuffer {
+    private byte[] buffer;
+    private int position;
+
+    private FrameBuffer(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Creates a buffer for a frame of a known size.
+     * The buffer still grows if more is written, but then has to be copied when the frame is finished.
+     * @param size Size of the frame, in bytes.
+     * @return Empty FrameBuffer.
+     */
+    public static FrameBuffer allocate(int size) {
+        return new FrameBuffer(size);
+    }
+
+    /**
+     * Get the number of bytes an int takes when written with writeVarInt.
+     * @param value Int to measure.
+     * @return Size of the VarInt, from 1 to 5 bytes.
+     */
+    public static int getVarIntSize(int value) {
+        int size = 1;
+
+        while((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes a single byte.
+     * @param value Byte to write.
+     * @return This buffer.
+     */
+    public FrameBuffer writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes a long, big-endian.
+     * @param value Long to write.
+     * @return This buffer.
+     */
+    public FrameBuffer writeLong(long value) {
+        ensureCapacity(8);
+
+        for(int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes an unsigned int using 7 bits per byte, like Minecraft's VarInt.
+     * @param value Int to write.
+     * @return This buffer.
+     */
+    public FrameBuffer writeVarInt(int value) {
+        ensureCapacity(getVarIntSize(value));
+
+        while((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes a uuid as two longs.
+     * @param uuid UUID to write.
+     * @return This buffer.
+     */
+    public FrameBuffer writeUUID(UUID uuid) {
+        return writeLong(uuid.getMostSignificantBits()).writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Get the number of bytes written so far.
+     * @return Size of the frame.
+     */
+    public int size() {
+        return position;
+    }
+
+    /**
+     * Get the written bytes.
+     * The buffer's own array is returned when it was filled exactly, so the buffer must not be written to afterwards.
+     * @return The encoded frame.
+     */
+    public byte[] toByteArray() {
+        if(position == buffer.length) {
+            return buffer;
+        }
+
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Grows the buffer if there is not enough room for the next write.
+     * @param bytes Number of bytes about to be written.
+     */
+    private void ensureCapacity(int bytes) {
+        if(position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.sync;
+
+import net.jadedmc.jadedparty.party.PartyRank;
+
+import java.util.UUID;
+
+/**
+ * Represents a single change to a party, sent to backend servers that already have a snapshot of it.
+ * @param type Type of change.
+ * @param player Player the change is about. Null for settings changes.
+ * @param value Rank ordinal for member changes, or the settings flags for settings changes.
+ */
+public record PartyDelta(Type type, UUID player, int value) {
+
+    /**
+     * Creates a delta for a player joining the party.
+     * @param player UUID of the player.
+     * @param rank Rank the player joined with.
+     * @return PartyDelta.
+     */
+    public static PartyDelta memberAdd(UUID player, PartyRank rank) {
+        return new PartyDelta(Type.MEMBER_ADD, player, rank.ordinal());
+    }
+
+    /**
+     * Creates a delta for a player leaving the party.
+     * @param player UUID of the player.
+     * @return PartyDelta.
+     */
+    public static PartyDelta memberRemove(UUID player) {
+        return new PartyDelta(Type.MEMBER_REMOVE, player, 0);
+    }
+
+    /**
+     * Creates a delta for a player's rank changing.
+     * @param player UUID of the player.
+     * @param rank New rank of the player.
+     * @return PartyDelta.
+     */
+    public static PartyDelta rankChange(UUID player, PartyRank rank) {
+        return new PartyDelta(Type.RANK_CHANGE, player, rank.ordinal());
+    }
+
+    /**
+     * Creates a delta for a new party leader. The previous leader becomes a moderator.
+     * @param player UUID of the new leader.
+     * @return PartyDelta.
+     */
+    public static PartyDelta leaderChange(UUID player) {
+        return new PartyDelta(Type.LEADER_CHANGE, player, PartyRank.LEADER.ordinal());
+    }
+
+    /**
+     * Creates a delta for the party's settings changing.
+     * @param flags Settings flags, see PartyMessageEncoder.
+     * @return PartyDelta.
+     */
+    public static PartyDelta settingsChange(int flags) {
+        return new PartyDelta(Type.SETTINGS_CHANGE, null, flags);
+    }
+
+    /**
+     * The types of changes that can be made to a party.
+     */
+    public enum Type {
+        MEMBER_ADD(0x01),
+        MEMBER_REMOVE(0x02),
+        RANK_CHANGE(0x03),
+        LEADER_CHANGE(0x04),
+        SETTINGS_CHANGE(0x05);
+
+        private final int opcode;
+
+        Type(int opcode) {
+            this.opcode = opcode;
+        }
+
+        /**
+         * Get the byte used to identify the change in a delta frame.
+         * @return Opcode of the change.
+         */
+        public int getOpcode() {
+            return opcode;
+        }
+
+        /**
+         * Gets the type of change from its opcode.
+         * @param opcode Opcode of the change.
+         * @return Type of change, or null if the opcode is unknown.
+         */
+        public static Type fromOpcode(int opcode) {
+            for(Type type : values()) {
+                if(type.opcode == opcode) {
+                    return type;
+                }
+            }
+
+            return null;
+        }
+    }
+}
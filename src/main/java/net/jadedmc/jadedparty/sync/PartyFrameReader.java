@@ -0,0 +1,195 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.sync;
+
+import net.jadedmc.jadedparty.party.PartyRank;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the binary frames written by the PartyMessageEncoder.
+ * See PartyMessageEncoder for the layout of each frame.
+ */
+public final class PartyFrameReader {
+    private static final PartyRank[] RANKS = PartyRank.values();
+
+    private PartyFrameReader() {}
+
+    /**
+     * Get the opcode of a frame.
+     * @param frame Encoded frame.
+     * @return Opcode of the frame, or -1 if it is not a binary frame of the current protocol version.
+     */
+    public static int getOpcode(byte[] frame) {
+        if(frame.length < 2 || frame[0] != PartyMessageEncoder.PROTOCOL_VERSION) {
+            return -1;
+        }
+
+        return frame[1] & 0xFF;
+    }
+
+    /**
+     * Reads the party uuid of a frame, which always follows the opcode.
+     * Works for SYNC, DELTA, DISBAND and RESYNC frames.
+     * @param frame Encoded frame.
+     * @return UUID of the party.
+     */
+    public static UUID readPartyUUID(byte[] frame) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(frame, 2, frame.length - 2);
+            return readUUID(buffer);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Truncated party frame", exception);
+        }
+    }
+
+    /**
+     * Reads a SYNC frame.
+     * @param frame Encoded frame.
+     * @return Snapshot of the party.
+     */
+    public static PartySnapshot readSnapshot(byte[] frame) {
+        if(getOpcode(frame) != PartyMessageEncoder.OPCODE_SYNC) {
+            throw new IllegalArgumentException("Not a sync frame");
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(frame, 2, frame.length - 2);
+            UUID partyUUID = readUUID(buffer);
+            long version = buffer.getLong();
+            UUID leader = readUUID(buffer);
+            boolean publicParty = (buffer.get() & PartyMessageEncoder.SETTING_PUBLIC) != 0;
+
+            int count = readVarInt(buffer);
+            Map<UUID, PartyRank> members = new HashMap<>(count * 2);
+            for(int i = 0; i < count; i++) {
+                UUID member = readUUID(buffer);
+                members.put(member, toRank(buffer.get()));
+            }
+
+            return new PartySnapshot(partyUUID, version, leader, publicParty, Map.copyOf(members));
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Truncated sync frame", exception);
+        }
+    }
+
+    /**
+     * Reads a DELTA frame.
+     * @param frame Encoded frame.
+     * @return The changes in the frame.
+     */
+    public static DeltaFrame readDelta(byte[] frame) {
+        if(getOpcode(frame) != PartyMessageEncoder.OPCODE_DELTA) {
+            throw new IllegalArgumentException("Not a delta frame");
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(frame, 2, frame.length - 2);
+            UUID partyUUID = readUUID(buffer);
+            long baseVersion = buffer.getLong();
+
+            int count = readVarInt(buffer);
+            List<PartyDelta> deltas = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                PartyDelta.Type type = PartyDelta.Type.fromOpcode(buffer.get());
+                if(type == null) {
+                    throw new IllegalArgumentException("Unknown change in delta frame");
+                }
+
+                switch (type) {
+                    case MEMBER_ADD, RANK_CHANGE -> deltas.add(new PartyDelta(type, readUUID(buffer), toRank(buffer.get()).ordinal()));
+                    case MEMBER_REMOVE -> deltas.add(new PartyDelta(type, readUUID(buffer), 0));
+                    case LEADER_CHANGE -> deltas.add(new PartyDelta(type, readUUID(buffer), PartyRank.LEADER.ordinal()));
+                    case SETTINGS_CHANGE -> deltas.add(new PartyDelta(type, null, buffer.get()));
+                }
+            }
+
+            return new DeltaFrame(partyUUID, baseVersion, deltas);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Truncated delta frame", exception);
+        }
+    }
+
+    /**
+     * Gets a rank from the ordinal it was written as.
+     * @param ordinal Ordinal of the rank.
+     * @return The rank.
+     * @throws IllegalArgumentException If no rank has that ordinal, such as in a damaged frame.
+     */
+    public static PartyRank toRank(int ordinal) {
+        if(ordinal < 0 || ordinal >= RANKS.length) {
+            throw new IllegalArgumentException("Unknown party rank " + ordinal);
+        }
+
+        return RANKS[ordinal];
+    }
+
+    /**
+     * The contents of a DELTA frame.
+     * @param partyUUID UUID of the party that changed.
+     * @param baseVersion Version of the party before the first change.
+     * @param deltas Changes, in the order they were made.
+     */
+    public record DeltaFrame(UUID partyUUID, long baseVersion, List<PartyDelta> deltas) {}
+
+    /**
+     * Reads a uuid written as two longs.
+     * @param buffer Buffer to read from.
+     * @return The uuid.
+     */
+    private static UUID readUUID(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Reads an int written with FrameBuffer.writeVarInt.
+     * @param buffer Buffer to read from.
+     * @return The int.
+     */
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("VarInt is too long");
+    }
+}
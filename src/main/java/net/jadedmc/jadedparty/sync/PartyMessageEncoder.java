@@ -0,0 +1,272 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.sync;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import net.jadedmc.jadedparty.party.Party;
+import net.jadedmc.jadedparty.party.PartyRank;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Encodes the messages sent to the backend servers on the jadedmc:party channel.
+ * <p>
+ * Binary frames start with the protocol version and an opcode, followed by the payload:
+ * <pre>
+ * SYNC:    party (2 longs), version (long), leader (2 longs), settings (byte),
+ *          member count (varint), [member (2 longs), rank (byte)]...
+ * DELTA:   party (2 longs), base version (long), change count (varint), [change]...
+ * DISBAND: party (2 longs)
+ * RESYNC:  party (2 longs), sent by a backend server that needs a full snapshot.
+ * </pre>
+ * Each change in a DELTA frame is its opcode followed by the player (2 longs) and, for member adds and
+ * rank changes, the rank (byte). Settings changes carry only the settings (byte).
+ * The n-th change of a frame brings the party to version base + n. Backend servers skip changes they
+ * already have, and send a RESYNC when the base version is newer than the version they know.
+ * <p>
+ * Each member costs 17 bytes in a SYNC frame against 37 in the legacy format, so snapshots are a little over
+ * 2x smaller. Most syncs are DELTA frames, which only carry the players that changed.
+ * <p>
+ * Legacy messages are two UTF strings, so their first byte is always 0 and never matches a protocol version.
+ */
+public class PartyMessageEncoder {
+    public static final String CHANNEL = "jadedmc:party";
+    public static final int PROTOCOL_VERSION = 2;
+
+    public static final int OPCODE_SYNC = 0x01;
+    public static final int OPCODE_DISBAND = 0x02;
+    public static final int OPCODE_DELTA = 0x03;
+    public static final int OPCODE_RESYNC = 0x10;
+
+    public static final int SETTING_PUBLIC = 0x01;
+
+    // Sizes of the fixed parts of each frame, in bytes. The header is the protocol version and opcode.
+    private static final int SYNC_HEADER_SIZE = 2 + 16 + 8 + 16 + 1;
+    private static final int SYNC_MEMBER_SIZE = 16 + 1;
+    private static final int DELTA_HEADER_SIZE = 2 + 16 + 8;
+    private static final int DISBAND_SIZE = 2 + 16;
+
+    private final SyncProtocol protocol;
+
+    /**
+     * Creates the encoder.
+     * @param protocol Format to encode messages in.
+     */
+    public PartyMessageEncoder(SyncProtocol protocol) {
+        this.protocol = protocol;
+    }
+
+    /**
+     * Get the format messages are encoded in.
+     * @return SyncProtocol being used.
+     */
+    public SyncProtocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Get if the protocol supports sending changes instead of full snapshots.
+     * @return Whether delta frames can be sent.
+     */
+    public boolean supportsDeltas() {
+        return protocol == SyncProtocol.BINARY;
+    }
+
+    /**
+     * Get the settings flags of a party.
+     * @param party Party to get the settings of.
+     * @return Settings flags.
+     */
+    public static int getSettingsFlags(Party party) {
+        return party.isPublic() ? SETTING_PUBLIC : 0;
+    }
+
+    /**
+     * Encodes a full snapshot of a party.
+     * @param party Party to encode.
+     * @return Encoded message.
+     */
+    public byte[] encodeSync(Party party) {
+        if(protocol == SyncProtocol.LEGACY) {
+            return encodeLegacy("sync", createLegacySyncMessage(party));
+        }
+
+        // Parties are encoded from their mailbox, so nothing changes while this runs.
+        // The members are still copied first, so the count always matches the members written.
+        List<Map.Entry<UUID, PartyRank>> members = new ArrayList<>(party.getRanks().entrySet());
+        return encodeSnapshot(party.getUUID(), party.getVersion(), party.getLeaderUUID(), getSettingsFlags(party), members);
+    }
+
+    /**
+     * Encodes a party snapshot, such as one written to the journal.
+     * Always uses the binary protocol.
+     * @param snapshot Snapshot to encode.
+     * @return Encoded message.
+     */
+    public byte[] encodeSync(PartySnapshot snapshot) {
+        int settings = snapshot.publicParty() ? SETTING_PUBLIC : 0;
+        return encodeSnapshot(snapshot.uuid(), snapshot.version(), snapshot.leader(), settings, snapshot.members().entrySet());
+    }
+
+    /**
+     * Encodes a binary SYNC frame.
+     * @param partyUUID UUID of the party.
+     * @param version Version of the party.
+     * @param leader UUID of the party leader.
+     * @param settings Settings flags.
+     * @param members Members and their ranks.
+     * @return Encoded message.
+     */
+    private byte[] encodeSnapshot(UUID partyUUID, long version, UUID leader, int settings, Collection<Map.Entry<UUID, PartyRank>> members) {
+        int size = SYNC_HEADER_SIZE + FrameBuffer.getVarIntSize(members.size()) + members.size() * SYNC_MEMBER_SIZE;
+        FrameBuffer frame = FrameBuffer.allocate(size)
+                .writeByte(PROTOCOL_VERSION)
+                .writeByte(OPCODE_SYNC)
+                .writeUUID(partyUUID)
+                .writeLong(version)
+                .writeUUID(leader)
+                .writeByte(settings)
+                .writeVarInt(members.size());
+
+        for(Map.Entry<UUID, PartyRank> member : members) {
+            frame.writeUUID(member.getKey()).writeByte(member.getValue().ordinal());
+        }
+
+        return frame.toByteArray();
+    }
+
+    /**
+     * Encodes a list of changes to a party.
+     * Only supported by the binary protocol.
+     * @param partyUUID UUID of the party that changed.
+     * @param baseVersion Version of the party before the first change.
+     * @param deltas Changes, in the order they were made.
+     * @return Encoded message.
+     */
+    public byte[] encodeDelta(UUID partyUUID, long baseVersion, List<PartyDelta> deltas) {
+        int size = DELTA_HEADER_SIZE + FrameBuffer.getVarIntSize(deltas.size());
+        for(PartyDelta delta : deltas) {
+            size += getEncodedSize(delta);
+        }
+
+        FrameBuffer frame = FrameBuffer.allocate(size)
+                .writeByte(PROTOCOL_VERSION)
+                .writeByte(OPCODE_DELTA)
+                .writeUUID(partyUUID)
+                .writeLong(baseVersion)
+                .writeVarInt(deltas.size());
+
+        for(PartyDelta delta : deltas) {
+            frame.writeByte(delta.type().getOpcode());
+
+            switch (delta.type()) {
+                case MEMBER_ADD, RANK_CHANGE -> frame.writeUUID(delta.player()).writeByte(delta.value());
+                case MEMBER_REMOVE, LEADER_CHANGE -> frame.writeUUID(delta.player());
+                case SETTINGS_CHANGE -> frame.writeByte(delta.value());
+            }
+        }
+
+        return frame.toByteArray();
+    }
+
+    /**
+     * Get the number of bytes a change takes in a DELTA frame.
+     * @param delta Change to measure.
+     * @return Size of the change, including its opcode.
+     */
+    private static int getEncodedSize(PartyDelta delta) {
+        return switch (delta.type()) {
+            case MEMBER_ADD, RANK_CHANGE -> 18;
+            case MEMBER_REMOVE, LEADER_CHANGE -> 17;
+            case SETTINGS_CHANGE -> 2;
+        };
+    }
+
+    /**
+     * Encodes the message telling backend servers a party was disbanded.
+     * @param partyUUID UUID of the disbanded party.
+     * @return Encoded message.
+     */
+    public byte[] encodeDisband(UUID partyUUID) {
+        if(protocol == SyncProtocol.LEGACY) {
+            return encodeLegacy("disband", partyUUID.toString());
+        }
+
+        return FrameBuffer.allocate(DISBAND_SIZE)
+                .writeByte(PROTOCOL_VERSION)
+                .writeByte(OPCODE_DISBAND)
+                .writeUUID(partyUUID)
+                .toByteArray();
+    }
+
+    /**
+     * Encodes a message in the legacy text format.
+     * @param subChannel Subchannel of the message.
+     * @param message Message being sent.
+     * @return Encoded message.
+     */
+    private byte[] encodeLegacy(String subChannel, String message) {
+        ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeUTF(subChannel);
+        out.writeUTF(message);
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates the legacy "party~leader~member:member" sync message.
+     * Only online members other than the leader are listed.
+     * @param party Party to create the message for.
+     * @return Sync message.
+     */
+    private String createLegacySyncMessage(Party party) {
+        List<ProxiedPlayer> onlineMembers = party.getMembers();
+        UUID leader = party.getLeaderUUID();
+
+        StringJoiner members = new StringJoiner(":");
+        for(ProxiedPlayer member : onlineMembers) {
+            if(!member.getUniqueId().equals(leader)) {
+                members.add(member.getUniqueId().toString());
+            }
+        }
+
+        // The leader may be offline, so the member list is only known to be empty once it is built.
+        StringBuilder message = new StringBuilder();
+        message.append(party.getUUID()).append("~").append(leader);
+
+        if(members.length() > 0) {
+            message.append("~").append(members);
+        }
+
+        return message.toString();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.sync;
+
+import net.jadedmc.jadedparty.party.Party;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces party syncs, so a party is sent to the backend servers at most once per interval
+ * no matter how many times it changed.
+ */
+public class PartySyncTask implements Runnable {
+    private final Set<Party> dirtyParties = ConcurrentHashMap.newKeySet();
+    private final boolean immediate;
+
+    // Metrics
+    private final LongAdder syncRequests = new LongAdder();
+    private final LongAdder syncsSent = new LongAdder();
+
+    /**
+     * Creates the task.
+     * @param immediate If true, syncs are sent as soon as they are requested instead of being coalesced.
+     */
+    public PartySyncTask(boolean immediate) {
+        this.immediate = immediate;
+    }
+
+    /**
+     * Marks a party as needing a sync.
+     * @param party Party that changed.
+     */
+    public void queue(Party party) {
+        syncRequests.increment();
+
+        if(immediate) {
+            flush(party);
+            return;
+        }
+
+        dirtyParties.add(party);
+    }
+
+    /**
+     * Sends every party that changed since the last run.
+     */
+    @Override
+    public void run() {
+        for(Party party : dirtyParties) {
+            // Removed before flushing, so changes made during the flush are picked up next run.
+            dirtyParties.remove(party);
+            flush(party);
+        }
+    }
+
+    /**
+     * Get the number of syncs that were requested.
+     * @return Number of sync requests.
+     */
+    public long getSyncRequests() {
+        return syncRequests.sum();
+    }
+
+    /**
+     * Get the number of syncs that were actually sent.
+     * @return Number of syncs sent.
+     */
+    public long getSyncsSent() {
+        return syncsSent.sum();
+    }
+
+    /**
+     * Get the number of parties waiting for the next run.
+     * @return Number of pending syncs.
+     */
+    public int getPendingSyncs() {
+        return dirtyParties.size();
+    }
+
+    /**
+     * Get the number of sync requests that were merged into another sync.
+     * @return Number of coalesced syncs.
+     */
+    public long getSyncsCoalesced() {
+        return Math.max(0, getSyncRequests() - getSyncsSent() - dirtyParties.size());
+    }
+
+    /**
+     * Sends a party to the backend servers, unless it was disbanded in the meantime.
+     * @param party Party to send.
+     */
+    private void flush(Party party) {
+        if(party.isDisbanded()) {
+            return;
+        }
+
+        party.syncDataNow();
+        syncsSent.increment();
+    }
+}
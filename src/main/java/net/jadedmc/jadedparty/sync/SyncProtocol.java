@@ -0,0 +1,56 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.sync;
+
+/**
+ * Represents the format used to send party data to the backend servers.
+ */
+public enum SyncProtocol {
+    /**
+     * Versioned binary frames. See PartyMessageEncoder for the layout.
+     */
+    BINARY,
+
+    /**
+     * The original text format, a subchannel followed by "party~leader~member:member".
+     */
+    LEGACY;
+
+    /**
+     * Gets a protocol from its name in the config file.
+     * Falls back to LEGACY if the name is not recognised, since every backend server understands it.
+     * @param name Name of the protocol.
+     * @return Matching SyncProtocol.
+     */
+    public static SyncProtocol fromString(String name) {
+        for(SyncProtocol protocol : values()) {
+            if(protocol.name().equalsIgnoreCase(name)) {
+                return protocol;
+            }
+        }
+
+        return LEGACY;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.utils;
+
+import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a multi-line chat message that is sent as a single chat packet.
+ * Each line keeps its own formatting, and lines are joined with newlines.
+ * Blocks without any variables can be built once and reused, since the result is never modified.
+ */
+public class ChatBlock {
+    private final List<BaseComponent> components = new ArrayList<>();
+    private boolean empty = true;
+
+    /**
+     * Adds an already rendered line, or a whole block built earlier.
+     * @param line Rendered line.
+     * @return This ChatBlock.
+     */
+    public ChatBlock add(BaseComponent[] line) {
+        if(!empty) {
+            components.add(new TextComponent("\n"));
+        }
+
+        // Each line gets its own parent, so its formatting can't carry over to the next line.
+        TextComponent parent = new TextComponent("");
+        parent.setExtra(new ArrayList<>(Arrays.asList(line)));
+        components.add(parent);
+        empty = false;
+        return this;
+    }
+
+    /**
+     * Adds a line using a message template.
+     * @param template Template of the line.
+     * @param values Values of the placeholders, in the order they were declared.
+     * @return This ChatBlock.
+     */
+    public ChatBlock add(MessageTemplate template, String... values) {
+        return add(template.render(values));
+    }
+
+    /**
+     * Adds a line, using MiniMessage tags and legacy color codes.
+     * @param message Line to add.
+     * @return This ChatBlock.
+     */
+    public ChatBlock add(String message) {
+        return add(ChatUtils.translate(message));
+    }
+
+    /**
+     * Adds a centered line.
+     * Only use this for fixed lines, since the padding of every line is cached.
+     * @param message Line to center.
+     * @return This ChatBlock.
+     */
+    public ChatBlock addCentered(String message) {
+        return add(ChatUtils.center(message));
+    }
+
+    /**
+     * Adds a centered line that contains variables, like a player name.
+     * The padding of the line is not cached.
+     * @param message Line to center.
+     * @return This ChatBlock.
+     */
+    public ChatBlock addCenteredUncached(String message) {
+        return add(ChatUtils.center(message, false));
+    }
+
+    /**
+     * Joins all lines into a single message.
+     * @return The rendered block.
+     */
+    public BaseComponent[] build() {
+        TextComponent block = new TextComponent("");
+        block.setExtra(new ArrayList<>(components));
+        return new BaseComponent[]{block};
+    }
+
+    /**
+     * Builds the block and sends it in one chat packet.
+     * @param sender CommandSender to send the block to.
+     */
+    public void send(CommandSender sender) {
+        sender.sendMessage(build());
+    }
+}
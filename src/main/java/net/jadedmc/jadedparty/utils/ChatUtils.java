@@ -29,11 +29,14 @@ import net.kyori.adventure.text.serializer.bungeecord.BungeeComponentSerializer;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.chat.BaseComponent;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatUtils {
     private final static int CENTER_PX = 154;
+    private final static int MAX_CENTERED_MESSAGES = 256;
+    private final static Map<String, String> centeredMessages = new ConcurrentHashMap<>();
 
     /**
      * A quick way to send a CommandSender a colored message.
@@ -44,45 +47,118 @@ public class ChatUtils {
         sender.sendMessage(translate(message));
     }
 
+    /**
+     * Sends an already rendered message to a group of CommandSenders.
+     * The message is translated once and the same components are shared by every recipient.
+     * @param recipients CommandSenders to send the message to.
+     * @param message Rendered message.
+     * @param exclude CommandSenders who should not get the message, such as the player who caused it.
+     */
+    public static void broadcast(Collection<? extends CommandSender> recipients, BaseComponent[] message, CommandSender... exclude) {
+        for(CommandSender recipient : recipients) {
+            if(!isExcluded(recipient, exclude)) {
+                recipient.sendMessage(message);
+            }
+        }
+    }
+
+    /**
+     * Checks if a CommandSender is in a small list of excluded senders.
+     * @param sender CommandSender to check.
+     * @param exclude Excluded CommandSenders.
+     * @return Whether the sender is excluded.
+     */
+    private static boolean isExcluded(CommandSender sender, CommandSender[] exclude) {
+        for(CommandSender excluded : exclude) {
+            if(excluded == sender) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Sender a centered chat message to a CommandSender.
      * @param sender Command Sender
      * @param message Message
      */
     public static void centeredChat(CommandSender sender, String message) {
-        String filteredMessage = MiniMessage.miniMessage().stripTags(message);
+        ChatUtils.chat(sender, center(message));
+    }
 
-        if(filteredMessage.equals("")) chat(sender, "");
+    /**
+     * Adds the padding needed to center a message in chat.
+     * Most centered lines are fixed headers, so the result is cached per message.
+     * @param message Message to center.
+     * @return Message with the padding in front of it.
+     */
+    public static String center(String message) {
+        return center(message, true);
+    }
+
+    /**
+     * Adds the padding needed to center a message in chat.
+     * @param message Message to center.
+     * @param cache Whether the result should be cached. Lines with player names should not be.
+     * @return Message with the padding in front of it.
+     */
+    public static String center(String message, boolean cache) {
+        if(!cache) {
+            return getPadding(MiniMessage.miniMessage().stripTags(message)) + message;
+        }
+
+        String centered = centeredMessages.get(message);
+
+        if(centered != null) {
+            return centered;
+        }
 
+        centered = getPadding(MiniMessage.miniMessage().stripTags(message)) + message;
+
+        // Lines containing player names are not worth keeping once the cache is full.
+        if(centeredMessages.size() < MAX_CENTERED_MESSAGES) {
+            centeredMessages.put(message, centered);
+        }
+
+        return centered;
+    }
+
+    /**
+     * Gets the spaces needed to center a message with its tags already removed.
+     * Both '&' and '§' color codes are skipped, since neither is visible in chat.
+     * @param filteredMessage Message without MiniMessage tags.
+     * @return Spaces to put in front of the message.
+     */
+    private static String getPadding(String filteredMessage) {
         int messagePxSize = 0;
-        boolean previousCode = false;
         boolean isBold = false;
+        int length = filteredMessage.length();
 
-        for(char c : filteredMessage.toCharArray()) {
-            if(c == '§') {
-                previousCode = true;
-            }
-            else if(previousCode) {
-                previousCode = false;
-                isBold = c == 'l' || c == 'L';
-            }
-            else {
-                DefaultFontInfo dFI = DefaultFontInfo.getDefaultFontInfo(c);
-                messagePxSize += isBold ? dFI.getBoldLength() : dFI.getLength();
-                messagePxSize++;
+        for(int i = 0; i < length; i++) {
+            char c = filteredMessage.charAt(i);
+
+            if((c == '&' || c == '§') && i + 1 < length) {
+                char code = Character.toLowerCase(filteredMessage.charAt(i + 1));
+
+                if((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f') || (code >= 'k' && code <= 'o') || code == 'r') {
+                    isBold = code == 'l';
+                    i++;
+                    continue;
+                }
             }
+
+            messagePxSize += DefaultFontInfo.getLength(c, isBold) + 1;
         }
 
-        int halvedMessageSize = messagePxSize / 2;
-        int toCompensate = CENTER_PX - halvedMessageSize;
+        int toCompensate = CENTER_PX - (messagePxSize / 2);
         int spaceLength = DefaultFontInfo.SPACE.getLength() + 1;
-        int compensated = 0;
-        StringBuilder sb = new StringBuilder();
-        while(compensated < toCompensate) {
-            sb.append(" ");
-            compensated += spaceLength;
+
+        if(toCompensate <= 0) {
+            return "";
         }
-        ChatUtils.chat(sender, sb.toString() + message);
+
+        return " ".repeat((toCompensate + spaceLength - 1) / spaceLength);
     }
 
     /**
@@ -96,44 +172,103 @@ public class ChatUtils {
 
     /**
      * Replaces the legacy color codes used in a message with their MiniMessage counterparts.
+     * Handles {@code &} and {@code §} codes and {@code &#RRGGBB} hex colors in a single pass.
      * @param message Message to replace color codes in.
      * @return Message with the color codes replaced.
      */
     public static String replaceLegacy(String message) {
-        // Create pattern to find hex color codes.
-        Pattern pattern = Pattern.compile("&#[a-fA-F0-9]{6}");
-        Matcher matcher = pattern.matcher(message);
-
-        // Find and translate legacy hex color codes.
-        while (matcher.find()) {
-            String color = message.substring(matcher.start() + 1, matcher.end());
-            message = message.replace("&" + color, "<reset><color:" + color + ">");
-            matcher = pattern.matcher(message);
+        // Most messages use MiniMessage tags only, so they are returned as is.
+        if(message.indexOf('&') == -1 && message.indexOf('§') == -1) {
+            return message;
         }
 
-        // Then replace legacy color codes.
-        return message.replace("§", "&")
-                .replace("&0", "<reset><black>")
-                .replace("&1", "<reset><dark_blue>")
-                .replace("&2", "<reset><dark_green>")
-                .replace("&3", "<reset><dark_aqua>")
-                .replace("&4", "<reset><dark_red>")
-                .replace("&5", "<reset><dark_purple>")
-                .replace("&6", "<reset><gold>")
-                .replace("&7", "<reset><gray>")
-                .replace("&8", "<reset><dark_gray>")
-                .replace("&9", "<reset><blue>")
-                .replace("&a", "<reset><green>")
-                .replace("&b", "<reset><aqua>")
-                .replace("&c", "<reset><red>")
-                .replace("&d", "<reset><light_purple>")
-                .replace("&e", "<reset><yellow>")
-                .replace("&f", "<reset><white>")
-                .replace("&k", "<obfuscated>")
-                .replace("&l", "<bold>")
-                .replace("&m", "<strikethrough>")
-                .replace("&n", "<u>")
-                .replace("&o", "<i>")
-                .replace("&r", "<reset>");
+        int length = message.length();
+        StringBuilder builder = new StringBuilder(length + 32);
+
+        for(int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+
+            // Hex colors only work with '&', like the old regex.
+            if(c == '&' && isHexColor(message, i)) {
+                builder.append("<reset><color:").append(message, i + 1, i + 8).append('>');
+                i += 7;
+                continue;
+            }
+
+            if(c == '&' || c == '§') {
+                if(i + 1 < length) {
+                    String replacement = getLegacyReplacement(message.charAt(i + 1));
+
+                    if(replacement != null) {
+                        builder.append(replacement);
+                        i++;
+                        continue;
+                    }
+                }
+
+                builder.append('&');
+                continue;
+            }
+
+            builder.append(c);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Checks if a '&#RRGGBB' hex color starts at the given index.
+     * @param message Message being translated.
+     * @param index Index of the '&'.
+     * @return Whether there is a hex color at the index.
+     */
+    private static boolean isHexColor(String message, int index) {
+        if(index + 8 > message.length() || message.charAt(index + 1) != '#') {
+            return false;
+        }
+
+        for(int i = index + 2; i < index + 8; i++) {
+            char c = message.charAt(i);
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+
+            if(!hex) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the MiniMessage replacement of a legacy color code.
+     * @param code Character following the '&'.
+     * @return MiniMessage tags, or null if the character is not a color code.
+     */
+    private static String getLegacyReplacement(char code) {
+        return switch (code) {
+            case '0' -> "<reset><black>";
+            case '1' -> "<reset><dark_blue>";
+            case '2' -> "<reset><dark_green>";
+            case '3' -> "<reset><dark_aqua>";
+            case '4' -> "<reset><dark_red>";
+            case '5' -> "<reset><dark_purple>";
+            case '6' -> "<reset><gold>";
+            case '7' -> "<reset><gray>";
+            case '8' -> "<reset><dark_gray>";
+            case '9' -> "<reset><blue>";
+            case 'a' -> "<reset><green>";
+            case 'b' -> "<reset><aqua>";
+            case 'c' -> "<reset><red>";
+            case 'd' -> "<reset><light_purple>";
+            case 'e' -> "<reset><yellow>";
+            case 'f' -> "<reset><white>";
+            case 'k' -> "<obfuscated>";
+            case 'l' -> "<bold>";
+            case 'm' -> "<strikethrough>";
+            case 'n' -> "<u>";
+            case 'o' -> "<i>";
+            case 'r' -> "<reset>";
+            default -> null;
+        };
     }
-}
\ No newline at end of file
+}
@@ -24,9 +24,15 @@
  */
 package net.jadedmc.jadedparty.utils;
 
+import java.text.Normalizer;
+import java.util.Arrays;
+
 /**
  * Stores information about the default font.
  * Used when centering text.
+ * Widths are only known for printable ASCII and the symbols listed here.
+ * They are not read from the vanilla font, so any other glyph is measured as 4 pixels,
+ * except accented Latin-1 letters and the full width unifont ranges.
  */
 public enum DefaultFontInfo {
     A('A', 5),
@@ -124,8 +130,49 @@ public enum DefaultFontInfo {
     PERIOD('.', 1),
     COMMA(',', 1),
     SPACE(' ', 3),
+    LEFT_DOUBLE_ARROW('\u00AB', 6),
+    RIGHT_DOUBLE_ARROW('\u00BB', 6),
+    MICRO('\u00B5', 5),
+    MIDDLE_DOT('\u00B7', 1),
+    BULLET('\u2022', 2),
+    BLACK_RECTANGLE('\u25AC', 4),
     DEFAULT('a', 4);
 
+    // Dense tables indexed by char, so lookups never scan values() or box the char.
+    private static final DefaultFontInfo[] LATIN_1 = new DefaultFontInfo[256];
+    private static final byte[] WIDTHS = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        Arrays.fill(WIDTHS, (byte) 4);
+
+        // Glyphs missing from the bitmap fonts fall back to unifont, where CJK and full width forms take up 8 pixels.
+        Arrays.fill(WIDTHS, '\u2E80', '\uA000', (byte) 8);
+        Arrays.fill(WIDTHS, '\uAC00', '\uD7A4', (byte) 8);
+        Arrays.fill(WIDTHS, '\uFF01', '\uFF61', (byte) 8);
+
+        for(DefaultFontInfo info : values()) {
+            // DEFAULT reuses 'a' as its character, and must not overwrite it.
+            if(info == DEFAULT) {
+                continue;
+            }
+
+            if(info.character < 256) {
+                LATIN_1[info.character] = info;
+            }
+
+            WIDTHS[info.character] = (byte) info.length;
+        }
+
+        // Accented Latin-1 letters are drawn on top of their base letter, so they share its width.
+        for(char c = '\u00C0'; c <= '\u00FF'; c++) {
+            char base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+
+            if(base < 128 && LATIN_1[base] != null && Character.isLetter(base)) {
+                WIDTHS[c] = WIDTHS[base];
+            }
+        }
+    }
+
     private final char character;
     private final int length;
 
@@ -149,9 +196,31 @@ public enum DefaultFontInfo {
     }
 
     public static DefaultFontInfo getDefaultFontInfo(char c) {
-        for (DefaultFontInfo dFI : DefaultFontInfo.values()) {
-            if (dFI.getCharacter() == c) return dFI;
+        if(c < 256) {
+            return LATIN_1[c] != null ? LATIN_1[c] : DefaultFontInfo.DEFAULT;
         }
-        return DefaultFontInfo.DEFAULT;
+
+        // Only these constants are outside Latin-1.
+        return switch (c) {
+            case '\u2022' -> DefaultFontInfo.BULLET;
+            case '\u25AC' -> DefaultFontInfo.BLACK_RECTANGLE;
+            default -> DefaultFontInfo.DEFAULT;
+        };
+    }
+
+    /**
+     * Gets the width of a character in the default font, without looking up its enum constant.
+     * @param c Character to get the width of.
+     * @param bold Whether the character is bold.
+     * @return Width of the character in pixels.
+     */
+    public static int getLength(char c, boolean bold) {
+        int length = WIDTHS[c];
+
+        if(bold && c != ' ') {
+            return length + 1;
+        }
+
+        return length;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.utils;
+
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A sorted, case-insensitive index of online player names.
+ * Used for tab completion, so a prefix lookup only visits the names that actually match
+ * instead of every player on the proxy.
+ */
+public class PlayerNameIndex {
+    private final ConcurrentSkipListMap<String, ProxiedPlayer> players = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds a player to the index.
+     * @param player Player who joined.
+     */
+    public void add(ProxiedPlayer player) {
+        players.put(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+
+    /**
+     * Removes a player from the index.
+     * Does nothing if another connection with the same name has already replaced them.
+     * @param player Player who left.
+     */
+    public void remove(ProxiedPlayer player) {
+        players.remove(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+
+    /**
+     * Gets the names of online players starting with a prefix, ignoring case.
+     * @param prefix Prefix to look for.
+     * @param limit Maximum number of names to return.
+     * @return Matching names, in alphabetical order.
+     */
+    public List<String> complete(String prefix, int limit) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        List<String> names = new ArrayList<>();
+
+        for(Map.Entry<String, ProxiedPlayer> entry : players.tailMap(lowerPrefix).entrySet()) {
+            if(names.size() >= limit || !entry.getKey().startsWith(lowerPrefix)) {
+                break;
+            }
+
+            names.add(entry.getValue().getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Get the number of indexed players.
+     * @return Number of online players in the index.
+     */
+    public int size() {
+        return players.size();
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty;
+
+import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.ProxyConfig;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.ReconnectHandler;
+import net.md_5.bungee.api.Title;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.config.ConfigurationAdapter;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.plugin.PluginDescription;
+import net.md_5.bungee.api.plugin.PluginManager;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
+import net.md_5.bungee.api.scheduler.TaskScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A proxy that only exists in memory, so the plugin can be tested and benchmarked without a running BungeeCord.
+ * Players and servers are stubs that remember their name and uuid, and drop every message sent to them.
+ * Scheduled tasks never run, so tests and benchmarks decide when syncs and expiry happen.
+ * <p>
+ * Methods don't use @Override, so the stub keeps compiling against BungeeCord versions that add or remove methods.
+ */
+public class TestProxy extends ProxyServer {
+    private static final String DEFAULT_CONFIG = "persistence:\n  enabled: false\n";
+
+    private final Map<UUID, ProxiedPlayer> players = new ConcurrentHashMap<>();
+    private final Map<String, ProxiedPlayer> playersByName = new ConcurrentHashMap<>();
+    private final Map<String, ServerInfo> servers = new ConcurrentHashMap<>();
+    private final Logger logger = Logger.getLogger("TestProxy");
+    private final ScheduledTask task = stub(ScheduledTask.class, Map.of());
+    private final TaskScheduler scheduler = stub(TaskScheduler.class, Map.of("schedule", task, "runAsync", task));
+    private final CommandSender console = stub(CommandSender.class, Map.of("getName", "CONSOLE"));
+    private final File pluginsFolder;
+    private PluginManager pluginManager;
+
+    /**
+     * Creates the proxy, with its plugin folder in a new temporary folder.
+     */
+    public TestProxy() {
+        logger.setLevel(Level.WARNING);
+
+        // Code that uses ProxyServer.getInstance() gets the first proxy created, since it can only be set once.
+        if(ProxyServer.getInstance() == null) {
+            ProxyServer.setInstance(this);
+        }
+
+        try {
+            pluginsFolder = Files.createTempDirectory("jadedparty-test").toFile();
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Creates and enables the plugin, with persistence turned off.
+     * @return The enabled plugin.
+     */
+    public JadedPartyPlugin enablePlugin() {
+        return enablePlugin(DEFAULT_CONFIG);
+    }
+
+    /**
+     * Creates and enables the plugin.
+     * @param config Contents of the plugin's config.yml. Missing settings use their defaults.
+     * @return The enabled plugin.
+     */
+    public JadedPartyPlugin enablePlugin(String config) {
+        PluginDescription description = new PluginDescription();
+        description.setName("JadedParty");
+        description.setMain(JadedPartyPlugin.class.getName());
+
+        JadedPartyPlugin plugin = new JadedPartyPlugin(this, description);
+
+        try {
+            // Older BungeeCord versions don't initialize plugins created with this constructor.
+            if(plugin.getProxy() == null) {
+                Method init = Plugin.class.getDeclaredMethod("init", ProxyServer.class, PluginDescription.class);
+                init.setAccessible(true);
+                init.invoke(plugin, this, description);
+            }
+
+            Path dataFolder = plugin.getDataFolder().toPath();
+            Files.createDirectories(dataFolder);
+            Files.writeString(dataFolder.resolve("config.yml"), config, StandardCharsets.UTF_8);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Could not initialize the plugin", exception);
+        }
+
+        plugin.onEnable();
+        return plugin;
+    }
+
+    /**
+     * Adds a backend server.
+     * @param name Name of the server.
+     * @return The server.
+     */
+    public ServerInfo addServer(String name) {
+        ServerInfo server = stub(ServerInfo.class, Map.of("getName", name));
+        servers.put(name, server);
+        return server;
+    }
+
+    /**
+     * Adds an online player. Players added before the plugin is enabled are indexed for tab completion.
+     * @param name Name of the player.
+     * @param serverInfo Server the player is on, or null if they are still connecting.
+     * @return The player.
+     */
+    public ProxiedPlayer addPlayer(String name, ServerInfo serverInfo) {
+        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("getName", name);
+        values.put("getDisplayName", name);
+        values.put("getUniqueId", uuid);
+        values.put("hasPermission", true);
+
+        if(serverInfo != null) {
+            values.put("getServer", stub(Server.class, Map.of("getInfo", serverInfo)));
+        }
+
+        ProxiedPlayer player = stub(ProxiedPlayer.class, values);
+        players.put(uuid, player);
+        playersByName.put(name.toLowerCase(Locale.ROOT), player);
+        return player;
+    }
+
+    /**
+     * Removes a player, as if they disconnected.
+     * Only removes them from the proxy, the plugin is not told.
+     * @param player Player to remove.
+     */
+    public void removePlayer(ProxiedPlayer player) {
+        players.remove(player.getUniqueId(), player);
+        playersByName.remove(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+
+    /**
+     * Creates an object of an interface that returns fixed values.
+     * Methods without a value return null, false or zero, so calls like sendMessage do nothing.
+     * @param type Interface to stub.
+     * @param values Return values, by method name.
+     * @param <T> Type of the interface.
+     * @return The stub.
+     */
+    public static <T> T stub(Class<T> type, Map<String, Object> values) {
+        Object stub = java.lang.reflect.Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + values.getOrDefault("getName", "");
+            }
+
+            Object value = values.get(method.getName());
+            return value != null ? value : getDefaultValue(method.getReturnType());
+        });
+
+        return type.cast(stub);
+    }
+
+    /**
+     * Gets the value a stub returns for a method it has no value for.
+     * @param type Return type of the method.
+     * @return Default value of the type.
+     */
+    private static Object getDefaultValue(Class<?> type) {
+        if(!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+
+        if(type == boolean.class) {
+            return false;
+        }
+
+        if(type == char.class) {
+            return '\0';
+        }
+
+        if(type == long.class) {
+            return 0L;
+        }
+
+        if(type == float.class) {
+            return 0F;
+        }
+
+        if(type == double.class) {
+            return 0D;
+        }
+
+        if(type == byte.class) {
+            return (byte) 0;
+        }
+
+        if(type == short.class) {
+            return (short) 0;
+        }
+
+        return 0;
+    }
+
+    public String getName() {
+        return "TestProxy";
+    }
+
+    public String getVersion() {
+        return "test";
+    }
+
+    public String getTranslation(String name, Object... args) {
+        return name;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public Collection<ProxiedPlayer> getPlayers() {
+        return Collections.unmodifiableCollection(players.values());
+    }
+
+    public ProxiedPlayer getPlayer(String name) {
+        return playersByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public ProxiedPlayer getPlayer(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    public Map<String, ServerInfo> getServers() {
+        return servers;
+    }
+
+    public Map<String, ServerInfo> getServersCopy() {
+        return new HashMap<>(servers);
+    }
+
+    public ServerInfo getServerInfo(String name) {
+        return servers.get(name);
+    }
+
+    public synchronized PluginManager getPluginManager() {
+        // Created on first use, since it needs the proxy's logger.
+        if(pluginManager == null) {
+            pluginManager = new PluginManager(this);
+        }
+
+        return pluginManager;
+    }
+
+    public ConfigurationAdapter getConfigurationAdapter() {
+        return null;
+    }
+
+    public void setConfigurationAdapter(ConfigurationAdapter adapter) {
+    }
+
+    public ReconnectHandler getReconnectHandler() {
+        return null;
+    }
+
+    public void setReconnectHandler(ReconnectHandler handler) {
+    }
+
+    public void stop() {
+    }
+
+    public void stop(String reason) {
+    }
+
+    public void registerChannel(String channel) {
+    }
+
+    public void unregisterChannel(String channel) {
+    }
+
+    public Collection<String> getChannels() {
+        return Collections.emptyList();
+    }
+
+    public String getGameVersion() {
+        return "test";
+    }
+
+    public int getProtocolVersion() {
+        return 0;
+    }
+
+    public ServerInfo constructServerInfo(String name, InetSocketAddress address, String motd, boolean restricted) {
+        return addServer(name);
+    }
+
+    public ServerInfo constructServerInfo(String name, SocketAddress address, String motd, boolean restricted) {
+        return addServer(name);
+    }
+
+    public CommandSender getConsole() {
+        return console;
+    }
+
+    public File getPluginsFolder() {
+        return pluginsFolder;
+    }
+
+    public TaskScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public int getOnlineCount() {
+        return players.size();
+    }
+
+    public void broadcast(String message) {
+    }
+
+    public void broadcast(BaseComponent... message) {
+    }
+
+    public void broadcast(BaseComponent message) {
+    }
+
+    public Collection<String> getDisabledCommands() {
+        return Collections.emptyList();
+    }
+
+    public ProxyConfig getConfig() {
+        return null;
+    }
+
+    public Collection<ProxiedPlayer> matchPlayer(String match) {
+        ProxiedPlayer player = getPlayer(match);
+        return player == null ? Collections.emptyList() : Collections.singletonList(player);
+    }
+
+    public Title createTitle() {
+        return null;
+    }
+}
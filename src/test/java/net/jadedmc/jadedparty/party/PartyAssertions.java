@@ -0,0 +1,111 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.executor.PartyExecutor;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks shared by the party tests.
+ */
+final class PartyAssertions {
+
+    private PartyAssertions() {}
+
+    /**
+     * Waits until every task submitted to the executor has finished.
+     * @param executor Executor to wait for.
+     * @param timeout How long to wait, in seconds.
+     */
+    static void awaitIdle(PartyExecutor executor, long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+        // Finished tasks can submit more tasks, so the counts must match twice in a row.
+        int idleChecks = 0;
+        while(idleChecks < 2) {
+            if(System.nanoTime() > deadline) {
+                fail("Party tasks did not finish within " + timeout + " seconds, " + executor.getQueueDepth() + " still queued");
+            }
+
+            boolean idle = executor.getQueueDepth() == 0 && executor.getTasksCompleted() == executor.getTasksSubmitted();
+            idleChecks = idle ? idleChecks + 1 : 0;
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Checks that the player index, the members maps and the rank indexes all agree.
+     * @param partyManager Party manager to check.
+     * @param players Every player that could be in a party.
+     */
+    static void assertConsistent(PartyManager partyManager, Collection<UUID> players) {
+        Set<UUID> members = new HashSet<>();
+
+        for(Party party : partyManager.getParties()) {
+            assertFalse(party.isDisbanded(), "A disbanded party is still registered");
+            assertSame(party, partyManager.getParty(party.getUUID()));
+
+            // Exactly one leader, who is the one the party tracks.
+            assertEquals(PartyRank.LEADER, party.getRank(party.getLeaderUUID()), "The leader is not a member");
+            assertEquals(Set.of(party.getLeaderUUID()), party.getMemberUUIDs(PartyRank.LEADER));
+
+            // The rank index matches the members map.
+            Map<PartyRank, Set<UUID>> ranks = new EnumMap<>(PartyRank.class);
+            for(PartyRank rank : PartyRank.values()) {
+                ranks.put(rank, new HashSet<>());
+            }
+
+            for(UUID member : party.getMemberUUIDs()) {
+                ranks.get(party.getRank(member)).add(member);
+            }
+
+            for(PartyRank rank : PartyRank.values()) {
+                assertEquals(ranks.get(rank), Set.copyOf(party.getMemberUUIDs(rank)), "The " + rank + " index does not match the members");
+            }
+
+            // Every member is indexed to this party, and to no other.
+            for(UUID member : party.getMemberUUIDs()) {
+                assertTrue(members.add(member), "Player " + member + " is in two parties");
+                assertSame(party, partyManager.getPartyFromPlayer(member), "Player " + member + " is not indexed to their party");
+            }
+        }
+
+        // Every indexed player is a member of the party they are indexed to.
+        for(UUID player : players) {
+            Party party = partyManager.getPartyFromPlayer(player);
+            assertEquals(members.contains(player), party != null, "Player " + player + " is indexed to a party they are not in");
+            assertEquals(party != null, partyManager.isInParty(player));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.TestProxy;
+import net.jadedmc.jadedparty.listeners.PlayerDisconnectListener;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the party manager from many threads at once, then checks that no membership was lost or duplicated.
+ */
+class PartyConcurrencyTest {
+    private static final int PLAYERS = 64;
+    private static final int OPERATIONS = 20_000;
+
+    // Each thread waits for its changes after this many, like players waiting on their commands.
+    private static final int BATCH_SIZE = 32;
+
+    @ParameterizedTest(name = "grace-seconds: {0}")
+    @ValueSource(ints = {0, 120})
+    void concurrentChangesKeepPartiesConsistent(int graceSeconds) throws Exception {
+        TestProxy proxy = new TestProxy();
+        ServerInfo server = proxy.addServer("lobby");
+
+        List<ProxiedPlayer> players = new ArrayList<>(PLAYERS);
+        List<UUID> playerUUIDs = new ArrayList<>(PLAYERS);
+        for(int i = 0; i < PLAYERS; i++) {
+            // Half the players are still connecting, so syncs skip them.
+            ProxiedPlayer player = proxy.addPlayer("Player" + i, i % 2 == 0 ? server : null);
+            players.add(player);
+            playerUUIDs.add(player.getUniqueId());
+        }
+
+        // Invites expire after two ticks of the invite wheel, so expiry races with accepting.
+        JadedPartyPlugin plugin = proxy.enablePlugin("persistence:\n  enabled: false\nsync:\n  protocol: binary\ninvites:\n  expire-seconds: 2\nreconnect:\n  grace-seconds: " + graceSeconds + "\n");
+        PartyManager partyManager = plugin.partyManager();
+        PlayerDisconnectListener disconnectListener = new PlayerDisconnectListener(plugin);
+
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for(int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<CompletableFuture<?>> futures = new ArrayList<>();
+                start.await();
+
+                for(int i = 0; i < OPERATIONS; i++) {
+                    ProxiedPlayer player = players.get(random.nextInt(PLAYERS));
+                    ProxiedPlayer target = players.get(random.nextInt(PLAYERS));
+                    Party party = partyManager.getParty(player);
+
+                    // Creating and leaving are rare, so parties live long enough for their invites to be accepted.
+                    int action = random.nextInt(40);
+                    if(action == 0) {
+                        if(party == null) {
+                            partyManager.createParty(player);
+                        }
+                    }
+                    else if(action <= 14) {
+                        if(party != null && player != target) {
+                            futures.add(party.invitePlayer(target));
+                        }
+                    }
+                    else if(action <= 28) {
+                        for(UUID partyUUID : plugin.inviteManager().getInvites(player.getUniqueId())) {
+                            Party invitingParty = partyManager.getParty(partyUUID);
+                            if(invitingParty != null) {
+                                futures.add(invitingParty.acceptInvite(player).thenAccept(joined -> {
+                                    if(joined) {
+                                        accepted.incrementAndGet();
+                                    }
+                                }));
+                                break;
+                            }
+                        }
+                    }
+                    else if(action <= 35) {
+                        if(party != null) {
+                            futures.add(party.setRank(target, random.nextBoolean() ? PartyRank.LEADER : PartyRank.MODERATOR));
+                        }
+                    }
+                    else if(action <= 37) {
+                        if(party != null) {
+                            futures.add(party.removePlayer(player));
+                        }
+                    }
+                    else {
+                        disconnectListener.onDisconnect(new PlayerDisconnectEvent(player));
+                    }
+
+                    // Fails the test if any change threw.
+                    if(futures.size() >= BATCH_SIZE) {
+                        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+                        futures.clear();
+                    }
+
+                    // Flushes syncs now and then, so they race with the changes.
+                    if(i % 500 == 0) {
+                        plugin.syncTask().run();
+                    }
+                }
+
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+                return null;
+            }));
+        }
+
+        // The invite wheel is ticked by a single thread, like the proxy's scheduler does.
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread ticker = new Thread(() -> {
+            while(running.get()) {
+                plugin.inviteManager().run();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        });
+
+        start.countDown();
+        ticker.start();
+        try {
+            for(Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            running.set(false);
+            ticker.join();
+            pool.shutdown();
+        }
+
+        plugin.syncTask().run();
+        PartyAssertions.awaitIdle(plugin.partyExecutor(), 60);
+
+        assertTrue(accepted.get() > 0, "No invite was ever accepted");
+        assertEquals(0, plugin.partyExecutor().getTasksFailed(), "A party task threw an exception");
+        PartyAssertions.assertConsistent(partyManager, playerUUIDs);
+    }
+}
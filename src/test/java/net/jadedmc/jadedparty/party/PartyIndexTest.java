@@ -0,0 +1,208 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.TestProxy;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the uuid to party index always matches the members of every party.
+ */
+class PartyIndexTest {
+    private TestProxy proxy;
+    private ServerInfo server;
+    private PartyManager partyManager;
+    private final List<UUID> players = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        proxy = new TestProxy();
+        server = proxy.addServer("lobby");
+        partyManager = proxy.enablePlugin().partyManager();
+    }
+
+    private ProxiedPlayer addPlayer(String name) {
+        ProxiedPlayer player = proxy.addPlayer(name, server);
+        players.add(player.getUniqueId());
+        return player;
+    }
+
+    @Test
+    void createIndexesLeader() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        Party party = partyManager.createParty(leader);
+
+        assertSame(party, partyManager.getParty(leader));
+        assertNull(partyManager.createParty(leader), "A leader could create a second party");
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void joinAndLeaveUpdateIndex() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        ProxiedPlayer member = addPlayer("Member");
+        Party party = partyManager.createParty(leader);
+
+        assertTrue(party.addPlayer(member).join());
+        assertSame(party, partyManager.getParty(member));
+        PartyAssertions.assertConsistent(partyManager, players);
+
+        party.removePlayer(member).join();
+        assertNull(partyManager.getParty(member));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void playerCannotJoinTwoParties() {
+        ProxiedPlayer member = addPlayer("Member");
+        Party first = partyManager.createParty(addPlayer("First"));
+        Party second = partyManager.createParty(addPlayer("Second"));
+
+        assertTrue(first.addPlayer(member).join());
+        assertFalse(second.addPlayer(member).join());
+        assertSame(first, partyManager.getParty(member));
+        assertNull(second.getRank(member));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void rejoiningKeepsRank() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        Party party = partyManager.createParty(leader);
+
+        party.invitePlayer(leader).join();
+        assertFalse(party.acceptInvite(leader).join());
+        assertEquals(PartyRank.LEADER, party.getRank(leader));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void disbandRemovesEveryMember() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        ProxiedPlayer member = addPlayer("Member");
+        Party party = partyManager.createParty(leader);
+        party.addPlayer(member).join();
+
+        partyManager.disbandParty(party).join();
+
+        assertNull(partyManager.getParty(leader));
+        assertNull(partyManager.getParty(member));
+        assertNull(partyManager.getParty(party.getUUID()));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void leaderLeavingDisbands() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        ProxiedPlayer member = addPlayer("Member");
+        Party party = partyManager.createParty(leader);
+        party.addPlayer(member).join();
+
+        party.removePlayer(leader).join();
+
+        assertTrue(party.isDisbanded());
+        assertNull(partyManager.getParty(member));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void indexWorksForOfflinePlayers() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        ProxiedPlayer member = addPlayer("Member");
+        Party party = partyManager.createParty(leader);
+        party.addPlayer(member).join();
+
+        proxy.removePlayer(member);
+
+        assertSame(party, partyManager.getPartyFromPlayer(member.getUniqueId()));
+        assertTrue(partyManager.isInParty(member.getUniqueId()));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void offlineMemberRemovalUpdatesIndex() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        ProxiedPlayer member = addPlayer("Member");
+        Party party = partyManager.createParty(leader);
+        party.addPlayer(member).join();
+
+        proxy.removePlayer(leader);
+        assertEquals(member.getUniqueId(), party.removeOfflinePlayer(leader.getUniqueId()).join());
+
+        assertNull(partyManager.getPartyFromPlayer(leader.getUniqueId()));
+        assertEquals(member.getUniqueId(), party.getLeaderUUID());
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void restoreLeavesOutConflictingMembers() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        ProxiedPlayer shared = addPlayer("Shared");
+        Party existing = partyManager.createParty(leader);
+        existing.addPlayer(shared).join();
+
+        UUID restoredLeader = addPlayer("RestoredLeader").getUniqueId();
+        UUID restoredMember = addPlayer("RestoredMember").getUniqueId();
+        PartySnapshot snapshot = new PartySnapshot(UUID.randomUUID(), 5, restoredLeader, false, Map.of(
+                restoredLeader, PartyRank.LEADER,
+                restoredMember, PartyRank.MEMBER,
+                shared.getUniqueId(), PartyRank.MODERATOR));
+
+        Party restored = partyManager.restoreParty(snapshot);
+
+        assertNotNull(restored);
+        assertNull(restored.getRank(shared), "A member of another party was restored");
+        assertEquals(PartyRank.MEMBER, restored.getRank(restoredMember));
+        assertSame(existing, partyManager.getParty(shared));
+        assertEquals(6, restored.getVersion(), "Leaving out members must change the version");
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+
+    @Test
+    void restoreWithConflictingLeaderIsSkipped() {
+        ProxiedPlayer leader = addPlayer("Leader");
+        Party existing = partyManager.createParty(leader);
+
+        UUID restoredMember = addPlayer("RestoredMember").getUniqueId();
+        PartySnapshot snapshot = new PartySnapshot(UUID.randomUUID(), 3, leader.getUniqueId(), false, Map.of(
+                leader.getUniqueId(), PartyRank.LEADER,
+                restoredMember, PartyRank.MEMBER));
+
+        assertNull(partyManager.restoreParty(snapshot));
+        assertSame(existing, partyManager.getParty(leader));
+        assertNull(partyManager.getPartyFromPlayer(restoredMember));
+        PartyAssertions.assertConsistent(partyManager, players);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.party;
+
+import net.jadedmc.jadedparty.JadedPartyPlugin;
+import net.jadedmc.jadedparty.TestProxy;
+import net.jadedmc.jadedparty.store.PartyStore;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks what a party sends to its servers, journal and store.
+ */
+class PartySyncTest {
+    private TestProxy proxy;
+    private ServerInfo server;
+    private JadedPartyPlugin plugin;
+    private PartyManager partyManager;
+    private final Map<UUID, PartySnapshot> stored = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        proxy = new TestProxy();
+        server = proxy.addServer("lobby");
+        plugin = proxy.enablePlugin("persistence:\n  enabled: true\n");
+        partyManager = plugin.partyManager();
+        partyManager.setStore(new PartyStore() {
+            @Override
+            public void save(Party party) {
+                stored.put(party.getUUID(), PartySnapshot.of(party));
+            }
+
+            @Override
+            public void remove(UUID partyUUID) {
+                stored.remove(partyUUID);
+            }
+
+            @Override
+            public PartySnapshot getPartyFromPlayer(UUID playerUUID) {
+                return null;
+            }
+        });
+    }
+
+    @Test
+    void syncAfterDisbandDoesNothing() {
+        ProxiedPlayer leader = proxy.addPlayer("Leader", server);
+        Party party = partyManager.createParty(leader);
+        party.addPlayer(proxy.addPlayer("Member", server)).join();
+        party.syncDataNow().join();
+        assertTrue(stored.containsKey(party.getUUID()));
+
+        // Runs on the mailbox after the disband, like a coalesced sync that was waiting for the next flush.
+        partyManager.disbandParty(party).join();
+        long messages = plugin.partyMetrics().getSyncMessages();
+        long records = plugin.partyJournal().getRecordsQueued();
+
+        party.syncDataNow().join();
+        party.resync(server).join();
+
+        assertEquals(messages, plugin.partyMetrics().getSyncMessages(), "A disbanded party was sent to its servers");
+        assertEquals(records, plugin.partyJournal().getRecordsQueued(), "A disbanded party was journalled");
+        assertFalse(stored.containsKey(party.getUUID()), "A disbanded party was saved to the store");
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.persistence;
+
+import net.jadedmc.jadedparty.party.PartyRank;
+import net.jadedmc.jadedparty.party.PartySnapshot;
+import net.jadedmc.jadedparty.sync.PartyDelta;
+import net.jadedmc.jadedparty.sync.PartyMessageEncoder;
+import net.jadedmc.jadedparty.sync.SyncProtocol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that damaged journals are restored as far as possible, and that compacting doesn't hold up writes.
+ */
+class PartyJournalTest {
+    private final PartyMessageEncoder encoder = new PartyMessageEncoder(SyncProtocol.BINARY);
+    private final Logger logger = Logger.getLogger("PartyJournalTest");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unknownRanksAreSkipped() throws IOException {
+        logger.setLevel(Level.OFF);
+
+        UUID leader = UUID.randomUUID();
+        UUID member = UUID.randomUUID();
+        PartySnapshot party = new PartySnapshot(UUID.randomUUID(), 1, leader, false, Map.of(
+                leader, PartyRank.LEADER,
+                member, PartyRank.MEMBER));
+
+        // The last byte of a SYNC frame is the rank of its last member.
+        UUID damagedLeader = UUID.randomUUID();
+        byte[] damagedSync = encoder.encodeSync(new PartySnapshot(UUID.randomUUID(), 1, damagedLeader, false, Map.of(damagedLeader, PartyRank.LEADER)));
+        damagedSync[damagedSync.length - 1] = (byte) 0xFF;
+
+        writeJournal(
+                encoder.encodeSync(party),
+                encoder.encodeDelta(party.uuid(), 1, List.of(new PartyDelta(PartyDelta.Type.RANK_CHANGE, member, 7))),
+                encoder.encodeDelta(party.uuid(), 1, List.of(new PartyDelta(PartyDelta.Type.MEMBER_ADD, UUID.randomUUID(), -1))),
+                damagedSync);
+
+        Collection<PartySnapshot> restored = new PartyJournal(directory, logger).restore();
+
+        assertEquals(1, restored.size(), "The party with a damaged rank was restored");
+        PartySnapshot snapshot = restored.iterator().next();
+        assertEquals(party.uuid(), snapshot.uuid());
+        assertEquals(1, snapshot.version(), "A change with a damaged rank was applied");
+        assertEquals(PartyRank.MEMBER, snapshot.members().get(member));
+    }
+
+    @Test
+    void flushDoesNotWaitForCompaction() throws Exception {
+        PartyJournal journal = new PartyJournal(directory, logger);
+        journal.restore();
+        journal.start(TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toSeconds(1), List::of);
+
+        // Snapshots are taken on the party mailboxes, which can be slow to answer.
+        CountDownLatch snapshotting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> compaction = CompletableFuture.runAsync(() -> {
+            try {
+                journal.compact(() -> {
+                    snapshotting.countDown();
+                    awaitQuietly(release);
+                    return List.of();
+                });
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+
+        assertTrue(snapshotting.await(5, TimeUnit.SECONDS));
+        journal.recordDisband(UUID.randomUUID());
+        CompletableFuture.runAsync(() -> {
+            try {
+                journal.flush();
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertEquals(0, journal.getPendingRecords());
+
+        release.countDown();
+        compaction.get(5, TimeUnit.SECONDS);
+        assertEquals(1, journal.getCompactions());
+        journal.close(List::of);
+    }
+
+    /**
+     * Waits for a latch, ignoring interrupts.
+     * @param latch Latch to wait for.
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes records to the first journal generation, the way PartyJournal does.
+     * @param records Encoded frames.
+     * @throws IOException If the file could not be written.
+     */
+    private void writeJournal(byte[]... records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for(byte[] record : records) {
+            // Every record here is shorter than 128 bytes, so its length fits in one byte.
+            out.write(record.length);
+            out.write(record);
+        }
+
+        Files.write(directory.resolve("journal-1.bin"), out.toByteArray());
+    }
+}
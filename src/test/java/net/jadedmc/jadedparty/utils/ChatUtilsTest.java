@@ -0,0 +1,130 @@
+/*
+ * This file is part of JadedParty, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedparty.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the single pass replaceLegacy against the regex implementation it replaced.
+ */
+class ChatUtilsTest {
+    private static final String ALPHABET = "&&&§§##0123456789abcdefABCDEFklmnorKLMNORxyz <>:";
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void replaceLegacyMatchesRegex() {
+        Random random = new Random(1);
+
+        for(int i = 0; i < SAMPLES; i++) {
+            String message = randomMessage(random, random.nextInt(24));
+            assertEquals(replaceLegacyWithRegex(message), ChatUtils.replaceLegacy(message), () -> "Input: " + message);
+        }
+    }
+
+    @Test
+    void replaceLegacyMatchesRegexOnExamples() {
+        String[] messages = {
+                "",
+                "&",
+                "§",
+                "&&aText",
+                "§aGreen &lbold&r reset",
+                "&#a1B2c3Hex",
+                "&#a1B2cNot hex",
+                "§#a1B2c3Not hex",
+                "&#&#ffffff",
+                "&#ffffff&#ffffff",
+                "<green>MiniMessage only</green>",
+                "&A uppercase",
+                "&&#123456&0"
+        };
+
+        for(String message : messages) {
+            assertEquals(replaceLegacyWithRegex(message), ChatUtils.replaceLegacy(message), () -> "Input: " + message);
+        }
+    }
+
+    /**
+     * Creates a random message, weighted towards color codes.
+     * @param random Random to use.
+     * @param length Length of the message.
+     * @return Random message.
+     */
+    private static String randomMessage(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+
+        for(int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * The replaceLegacy the plugin used before it was rewritten as a single pass.
+     * @param message Message to replace color codes in.
+     * @return Message with the color codes replaced.
+     */
+    private static String replaceLegacyWithRegex(String message) {
+        Pattern pattern = Pattern.compile("&#[a-fA-F0-9]{6}");
+        Matcher matcher = pattern.matcher(message);
+
+        while (matcher.find()) {
+            String color = message.substring(matcher.start() + 1, matcher.end());
+            message = message.replace("&" + color, "<reset><color:" + color + ">");
+            matcher = pattern.matcher(message);
+        }
+
+        return message.replace("§", "&")
+                .replace("&0", "<reset><black>")
+                .replace("&1", "<reset><dark_blue>")
+                .replace("&2", "<reset><dark_green>")
+                .replace("&3", "<reset><dark_aqua>")
+                .replace("&4", "<reset><dark_red>")
+                .replace("&5", "<reset><dark_purple>")
+                .replace("&6", "<reset><gold>")
+                .replace("&7", "<reset><gray>")
+                .replace("&8", "<reset><dark_gray>")
+                .replace("&9", "<reset><blue>")
+                .replace("&a", "<reset><green>")
+                .replace("&b", "<reset><aqua>")
+                .replace("&c", "<reset><red>")
+                .replace("&d", "<reset><light_purple>")
+                .replace("&e", "<reset><yellow>")
+                .replace("&f", "<reset><white>")
+                .replace("&k", "<obfuscated>")
+                .replace("&l", "<bold>")
+                .replace("&m", "<strikethrough>")
+                .replace("&n", "<u>")
+                .replace("&o", "<i>")
+                .replace("&r", "<reset>");
+    }
+}